@@ -0,0 +1,10 @@
+-- Replicate everything the application writes to the primary mysql service
+CHANGE REPLICATION SOURCE TO
+    SOURCE_HOST = 'mysql',
+    SOURCE_USER = 'root',
+    SOURCE_PASSWORD = 'root',
+    SOURCE_AUTO_POSITION = 1,
+    GET_SOURCE_PUBLIC_KEY = 1;
+START REPLICA;
+-- persisted so it only applies once initialisation is done and survives restarts
+SET PERSIST super_read_only = ON;
@@ -0,0 +1,22 @@
+package com.movieflex.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// What the seeder created and the load generator picks its requests from
+public record Catalog(int minMovieId, int maxMovieId, List<String> posters, List<String> userEmails,
+                      String adminEmail, String password) {
+
+    public static Catalog read(ObjectMapper objectMapper, Path file) throws IOException {
+        return objectMapper.readValue(file.toFile(), Catalog.class);
+    }
+
+    public void write(ObjectMapper objectMapper, Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), this);
+    }
+}
@@ -0,0 +1,219 @@
+package com.movieflex.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+// Fills the database of a running MovieAPI up to the requested catalog size. Movies and casts are written
+// with batched JDBC inserts, going through the API would take hours for a million movies. Posters are a
+// fixed pool of files shared by the movies, users are registered through the API so their passwords are
+// hashed the way the application expects. Running it again only adds what is missing.
+public class CatalogSeeder {
+    private static final String[] WORDS = {"Silent", "Crimson", "Last", "Hidden", "Broken", "Golden", "Midnight",
+            "Iron", "Lost", "Frozen", "Wild", "Distant", "Burning", "Secret", "Electric", "Paper", "Glass", "Night",
+            "River", "Empire", "Garden", "Storm", "Shadow", "Harbor", "Echo", "Signal", "Orchard", "Canyon", "Station",
+            "Kingdom", "Letter", "Winter", "Summer", "Mirror", "Engine", "Island", "Voyage", "Promise", "Horizon"};
+    private static final String[] FIRST_NAMES = {"Ana", "Ben", "Chen", "Dara", "Elif", "Femi", "Gita", "Hugo", "Ines",
+            "Jon", "Kenji", "Lena", "Malik", "Nora", "Omar", "Priya", "Quinn", "Rosa", "Sami", "Tomas", "Uma", "Viktor",
+            "Wen", "Ximena", "Yusuf", "Zoe"};
+    private static final String[] LAST_NAMES = {"Abe", "Berg", "Costa", "Diallo", "Evans", "Fischer", "Garcia", "Haddad",
+            "Ito", "Jensen", "Kowalski", "Lopez", "Mensah", "Novak", "Okafor", "Petrov", "Quispe", "Rossi", "Sato",
+            "Tanaka", "Usman", "Varga", "Weber", "Xu", "Yilmaz", "Zhang"};
+    private static final String[] STUDIOS = {"Northlight", "Blue Harbor", "Redwood", "Meridian", "Lantern", "Atlas",
+            "Silverline", "Paper Moon", "Eastgate", "Kite"};
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private static final String PASSWORD = "password1";
+
+    private final LoadTestOptions options;
+    private final ObjectMapper objectMapper;
+    private final Random random;
+
+    public CatalogSeeder(LoadTestOptions options, ObjectMapper objectMapper) {
+        this.options = options;
+        this.objectMapper = objectMapper;
+        this.random = new Random(options.integer("random-seed", 42));
+    }
+
+    public void seed() throws Exception {
+        int movies = options.integer("movies", 10_000);
+        List<String> posters = writePosters(options.path("poster-dir", "../poster"), options.integer("posters", 500),
+                options.integer("poster-size", 50_000));
+        int minId;
+        int maxId;
+        try (Connection connection = DriverManager.getConnection(options.string("jdbc-url",
+                        "jdbc:mysql://localhost:3306/movies?rewriteBatchedStatements=true"),
+                options.string("jdbc-user", "root"), options.string("jdbc-password", "root"))) {
+            connection.setAutoCommit(false);
+            insertMovies(connection, movies, posters);
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select coalesce(min(movie_id), 0), coalesce(max(movie_id), 0) from movie")) {
+                rs.next();
+                minId = rs.getInt(1);
+                maxId = rs.getInt(2);
+            }
+            List<String> users = registerUsers(options.integer("users", 50));
+            String admin = "lt-admin@movieflex.local";
+            register(admin);
+            try (PreparedStatement promote = connection.prepareStatement("update users set role = 'ADMIN' where email = ?")) {
+                promote.setString(1, admin);
+                promote.executeUpdate();
+            }
+            connection.commit();
+            Catalog catalog = new Catalog(minId, maxId, posters, users, admin, PASSWORD);
+            catalog.write(objectMapper, options.path("catalog", "target/load-test/catalog.json"));
+        }
+        System.out.printf("Catalog has movie ids %d..%d, %d posters%n", minId, maxId, posters.size());
+    }
+
+    private void insertMovies(Connection connection, int target, List<String> posters) throws SQLException {
+        int existing;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select count(*) from movie")) {
+            rs.next();
+            existing = rs.getInt(1);
+        }
+        int missing = target - existing;
+        if (missing <= 0) {
+            System.out.printf("Database already has %d movies%n", existing);
+            return;
+        }
+        int batchSize = options.integer("batch-size", 1000);
+        List<Integer> people = insertPeople(connection);
+        int minCast = options.integer("min-cast", 3);
+        int maxCast = options.integer("max-cast", 8);
+        long start = System.nanoTime();
+        try (PreparedStatement movieInsert = connection.prepareStatement(
+                "insert into movie (title, director, studio, release_year, poster) values (?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement castInsert = connection.prepareStatement(
+                     "insert into movie_person (movie_id, person_id) values (?, ?)")) {
+            for (int done = 0; done < missing; ) {
+                int size = Math.min(batchSize, missing - done);
+                for (int i = 0; i < size; i++) {
+                    movieInsert.setString(1, word() + " " + word());
+                    movieInsert.setString(2, person());
+                    movieInsert.setString(3, STUDIOS[random.nextInt(STUDIOS.length)]);
+                    movieInsert.setInt(4, 1950 + random.nextInt(76));
+                    movieInsert.setString(5, posters.get(random.nextInt(posters.size())));
+                    movieInsert.addBatch();
+                }
+                movieInsert.executeBatch();
+                try (ResultSet keys = movieInsert.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        int movieId = keys.getInt(1);
+                        int castSize = minCast + random.nextInt(maxCast - minCast + 1);
+                        Set<Integer> cast = new HashSet<>();
+                        while (cast.size() < castSize) {
+                            cast.add(people.get(random.nextInt(people.size())));
+                        }
+                        for (Integer personId : cast) {
+                            castInsert.setInt(1, movieId);
+                            castInsert.setInt(2, personId);
+                            castInsert.addBatch();
+                        }
+                    }
+                }
+                castInsert.executeBatch();
+                connection.commit();
+                done += size;
+                if (done % (batchSize * 50) == 0 || done == missing) {
+                    System.out.printf("Inserted %d/%d movies (%.0f/s)%n", done, missing,
+                            done / ((System.nanoTime() - start) / 1e9));
+                }
+            }
+        }
+    }
+
+    // every name person() can produce, so casts are picked from the ids
+    private List<Integer> insertPeople(Connection connection) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("insert ignore into person (name) values (?)")) {
+            for (String first : FIRST_NAMES) {
+                for (char initial = 'A'; initial <= 'Z'; initial++) {
+                    for (String last : LAST_NAMES) {
+                        insert.setString(1, first + " " + initial + ". " + last);
+                        insert.addBatch();
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        List<Integer> ids = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select person_id from person")) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    private List<String> writePosters(Path dir, int count, int size) throws IOException {
+        Files.createDirectories(dir);
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = String.format("lt-poster-%05d.png", i);
+            Path file = dir.resolve(name);
+            if (!Files.exists(file)) {
+                byte[] content = new byte[size];
+                random.nextBytes(content);
+                System.arraycopy(PNG_SIGNATURE, 0, content, 0, Math.min(PNG_SIGNATURE.length, size));
+                Files.write(file, content);
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    private List<String> registerUsers(int count) throws IOException, InterruptedException {
+        List<String> emails = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String email = String.format("lt-user-%04d@movieflex.local", i);
+            register(email);
+            emails.add(email);
+        }
+        return emails;
+    }
+
+    // users that already exist from an earlier run are rejected, which is fine
+    private void register(String email) throws IOException, InterruptedException {
+        String username = email.substring(0, email.indexOf('@'));
+        String body = objectMapper.writeValueAsString(Map.of("name", username, "email", email,
+                "username", username, "password", PASSWORD));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(options.string("base-url", "http://localhost:8080") + "/auth/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    // about 17k distinct names, so cast lookups see a realistic spread of popular and rare actors
+    private String person() {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + (char) ('A' + random.nextInt(26)) + ". "
+                + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+}
@@ -0,0 +1,235 @@
+package com.movieflex.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-model load: requests are started on a fixed schedule whether or not earlier ones have returned, and
+// each latency is measured from the time the request was due rather than when it was sent. A stalled
+// server therefore shows up in the percentiles instead of quietly lowering the request rate.
+public class LoadGenerator {
+    private static final String[] SORT_COLUMNS = {"movieId", "title", "releaseYear", "director"};
+    private static final String[] EDITED_TITLES = {"Restored", "Director's Cut", "Remastered", "Extended"};
+
+    private final LoadTestOptions options;
+    private final Catalog catalog;
+    private final MovieApiClient client;
+
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final Operation[] operations = Operation.values();
+    private final double[] cumulativeWeights = new double[operations.length];
+    private final List<Session> sessions = new ArrayList<>();
+    private final Session admin;
+    // movies added by this run, the only ones it deletes so the seeded catalog keeps its size
+    private final ConcurrentLinkedQueue<Integer> addedMovies = new ConcurrentLinkedQueue<>();
+    private final byte[] poster;
+
+    private final double rate;
+    private final double hotSkew;
+    private final int pageSize;
+    private final int pages;
+
+    public LoadGenerator(LoadTestOptions options, ObjectMapper objectMapper, Catalog catalog) {
+        this.options = options;
+        this.catalog = catalog;
+        String baseUrl = options.string("base-url", "http://localhost:8080");
+        this.client = new MovieApiClient(baseUrl, options.string("read-url", baseUrl),
+                options.duration("timeout", Duration.ofSeconds(10)), objectMapper);
+        this.rate = options.decimal("rate", 200);
+        // 1 spreads reads evenly over the catalog, higher values concentrate them on the lowest ids
+        this.hotSkew = options.decimal("hot-skew", 3);
+        this.pageSize = options.integer("page-size", 20);
+        this.pages = Math.max(1, (catalog.maxMovieId() - catalog.minMovieId() + 1) / pageSize);
+        this.poster = new byte[options.integer("poster-size", 50_000)];
+        ThreadLocalRandom.current().nextBytes(poster);
+        double sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += options.decimal("mix." + operations[i].key(), operations[i].defaultWeight());
+            cumulativeWeights[i] = sum;
+            stats.put(operations[i], new OperationStats());
+        }
+        for (String email : catalog.userEmails()) {
+            sessions.add(new Session(email));
+        }
+        this.admin = new Session(catalog.adminEmail());
+    }
+
+    public Report run() throws Exception {
+        logIn();
+        Duration warmUp = options.duration("warm-up", Duration.ofSeconds(30));
+        Duration duration = options.duration("duration", Duration.ofMinutes(2));
+        int maxInFlight = options.integer("max-in-flight", 2000);
+        System.out.printf("Running %.0f requests/s for %s after a %s warm-up%n", rate, duration, warmUp);
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long period = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long measureFrom = start + warmUp.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long nextProgress = start + TimeUnit.SECONDS.toNanos(10);
+        Instant startedAt = Instant.now();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long due = start + i * period;
+                if (due >= end) {
+                    break;
+                }
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = pick();
+                boolean measured = due >= measureFrom;
+                if (!inFlight.tryAcquire()) {
+                    if (measured) {
+                        stats.get(operation).drop();
+                    }
+                    continue;
+                }
+                requests.execute(() -> {
+                    try {
+                        execute(operation, due, measured);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                if (due >= nextProgress) {
+                    printProgress(due >= measureFrom);
+                    nextProgress += TimeUnit.SECONDS.toNanos(10);
+                }
+            }
+        } finally {
+            client.close();
+        }
+        return Report.of(options.string("label", "unlabelled"), startedAt, duration, options.asMap(), stats);
+    }
+
+    // every user and the admin start with a valid token, later logins and refreshes replace them
+    private void logIn() throws Exception {
+        List<Session> all = new ArrayList<>(sessions);
+        all.add(admin);
+        try (ExecutorService logins = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Session session : all) {
+                logins.execute(() -> {
+                    try {
+                        client.login(session, catalog.password());
+                    } catch (IOException | InterruptedException e) {
+                        throw new IllegalStateException("Login of " + session.email() + " failed", e);
+                    }
+                });
+            }
+        }
+        long missing = all.stream().filter(session -> session.accessToken() == null).count();
+        if (missing > 0) {
+            throw new IllegalStateException(missing + " users could not log in, was the catalog seeded?");
+        }
+    }
+
+    private Operation pick() {
+        double r = ThreadLocalRandom.current().nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void execute(Operation operation, long due, boolean measured) {
+        int status;
+        try {
+            status = send(operation);
+        } catch (IOException e) {
+            status = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (measured) {
+            stats.get(operation).record(System.nanoTime() - due, status);
+        }
+    }
+
+    private int send(Operation operation) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Session session = sessions.get(random.nextInt(sessions.size()));
+        return switch (operation) {
+            case DETAIL -> client.get("/movies/" + hotMovieId(), session);
+            case PAGE -> client.get("/movies/allMoviesPage?pageNumber=" + hotPage() + "&pageSize=" + pageSize, session);
+            case SORTED_PAGE -> client.get("/movies/allMoviesPageSort?pageNumber=" + hotPage() + "&pageSize=" + pageSize
+                    + "&sortBy=" + SORT_COLUMNS[random.nextInt(SORT_COLUMNS.length)]
+                    + "&sortDirection=" + (random.nextBoolean() ? "asc" : "desc"), session);
+            case POSTER -> client.get("/file/" + catalog.posters().get(skewed(catalog.posters().size())), session);
+            case LOGIN -> client.login(session, catalog.password());
+            case REFRESH -> client.refresh(session);
+            case ADD -> add();
+            case UPDATE -> client.patchMovie(admin, hotMovieId(),
+                    Map.of("title", "Load Test " + EDITED_TITLES[random.nextInt(EDITED_TITLES.length)]));
+            case DELETE -> {
+                Integer movieId = addedMovies.poll();
+                // nothing of ours left to delete yet, add one instead so the write rate stays the same
+                yield movieId == null ? add() : client.deleteMovie(admin, movieId);
+            }
+        };
+    }
+
+    private int add() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Object> movie = Map.of("title", "Load Test " + random.nextInt(1_000_000),
+                "director", "Load Generator", "studio", "Benchmark", "releaseYear", 2000 + random.nextInt(26),
+                "movieCast", List.of("Cast " + random.nextInt(1000), "Cast " + random.nextInt(1000)));
+        int movieId = client.addMovie(admin, movie, poster);
+        if (movieId < 0) {
+            return -movieId;
+        }
+        addedMovies.add(movieId);
+        return 201;
+    }
+
+    private int hotMovieId() {
+        return catalog.minMovieId() + skewed(catalog.maxMovieId() - catalog.minMovieId() + 1);
+    }
+
+    private int hotPage() {
+        return skewed(pages);
+    }
+
+    // 0..n-1, a power law that makes a small head of the range take most of the traffic
+    private int skewed(int n) {
+        return (int) (n * Math.pow(ThreadLocalRandom.current().nextDouble(), hotSkew));
+    }
+
+    private void printProgress(boolean measuring) {
+        long count = 0;
+        long failures = 0;
+        double p99 = 0;
+        for (OperationStats operationStats : stats.values()) {
+            Histogram interval = operationStats.interval();
+            count += interval.getTotalCount();
+            p99 = Math.max(p99, interval.getValueAtPercentile(99) / 1000.0);
+        }
+        for (OperationStats operationStats : stats.values()) {
+            failures += operationStats.failures();
+        }
+        if (measuring) {
+            System.out.printf("%s  %d responses in the last 10s, worst p99 %.1f ms, %d failures so far%n",
+                    Instant.now(), count, p99, failures);
+        } else {
+            System.out.printf("%s  warming up%n", Instant.now());
+        }
+    }
+}
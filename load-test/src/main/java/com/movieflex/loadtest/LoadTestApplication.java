@@ -0,0 +1,48 @@
+package com.movieflex.loadtest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.file.Path;
+
+// Entry point, see scripts/load-test.sh for the whole cycle against a freshly started application
+//   seed    [--movies=10000 --posters=500 --users=50 --poster-dir=../poster --jdbc-url=...]
+//   run     [--rate=200 --duration=PT2M --warm-up=PT30S --label=1.4.0 --mix.detail=50 ...]
+//           [--base-url=http://localhost:8080 --read-url=http://localhost:8081] reads to the reactive port
+//   compare baseline.json candidate.json [--max-p99-regression=0.1 --max-error-rate-increase=0.005]
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = new LoadTestOptions(args);
+        ObjectMapper objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        String command = options.arguments().isEmpty() ? "" : options.arguments().get(0);
+        Path catalog = options.path("catalog", "target/load-test/catalog.json");
+        switch (command) {
+            case "seed" -> new CatalogSeeder(options, objectMapper).seed();
+            case "run" -> {
+                Report report = new LoadGenerator(options, objectMapper, Catalog.read(objectMapper, catalog)).run();
+                report.print(System.out);
+                Path file = report.write(objectMapper, options.path("report-dir", "target/load-test/reports"));
+                System.out.printf("Report written to %s%n", file);
+            }
+            case "compare" -> {
+                if (options.arguments().size() != 3) {
+                    usage();
+                }
+                Report baseline = Report.read(objectMapper, Path.of(options.arguments().get(1)));
+                Report candidate = Report.read(objectMapper, Path.of(options.arguments().get(2)));
+                boolean passed = new ReportComparison(baseline, candidate,
+                        options.decimal("max-p99-regression", 0.1),
+                        options.decimal("max-error-rate-increase", 0.005)).print(System.out);
+                System.exit(passed ? 0 : 1);
+            }
+            default -> usage();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("usage: seed | run | compare <baseline.json> <candidate.json> [--option=value ...]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,60 @@
+package com.movieflex.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// --name=value options of the command line, everything else is a positional argument
+public class LoadTestOptions {
+    private final Map<String, String> options = new LinkedHashMap<>();
+    private final List<String> arguments = new ArrayList<>();
+
+    public LoadTestOptions(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                int eq = arg.indexOf('=');
+                if (eq < 0) {
+                    options.put(arg.substring(2), "true");
+                } else {
+                    options.put(arg.substring(2, eq), arg.substring(eq + 1));
+                }
+            } else {
+                arguments.add(arg);
+            }
+        }
+    }
+
+    public List<String> arguments() {
+        return arguments;
+    }
+
+    public Map<String, String> asMap() {
+        return options;
+    }
+
+    public String string(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    public int integer(String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public double decimal(String name, double defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    public Duration duration(String name, Duration defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Duration.parse(value);
+    }
+
+    public Path path(String name, String defaultValue) {
+        return Path.of(string(name, defaultValue));
+    }
+}
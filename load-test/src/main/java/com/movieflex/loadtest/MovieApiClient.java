@@ -0,0 +1,122 @@
+package com.movieflex.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+// The endpoints the load generator drives, each returns the HTTP status
+public class MovieApiClient implements AutoCloseable {
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    // where the GETs go, the reactive read port when that is what is measured
+    private final String readUrl;
+    private final Duration timeout;
+
+    public MovieApiClient(String baseUrl, String readUrl, Duration timeout, ObjectMapper objectMapper) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.readUrl = readUrl;
+        this.timeout = timeout;
+    }
+
+    public int get(String path, Session session) throws IOException, InterruptedException {
+        HttpRequest request = request(readUrl, path, session).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    public int login(Session session, String password) throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(Map.of("email", session.email(), "password", password));
+        return authenticate("/auth/login", body, session);
+    }
+
+    public int refresh(Session session) throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(Map.of("refreshToken", session.refreshToken()));
+        return authenticate("/auth/refresh", body, session);
+    }
+
+    private int authenticate(String path, String body, Session session) throws IOException, InterruptedException {
+        HttpRequest request = request(path, null)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 200) {
+            JsonNode tokens = objectMapper.readTree(response.body());
+            session.update(tokens.path("accessToken").asText(), tokens.path("refreshToken").asText());
+        }
+        return response.statusCode();
+    }
+
+    // returns the new movie id, or -status when the upload failed
+    public int addMovie(Session admin, Map<String, Object> movie, byte[] poster) throws IOException, InterruptedException {
+        String boundary = "lt-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(poster.length + 1024);
+        part(body, boundary, "form-data; name=\"file\"; filename=\"lt-" + UUID.randomUUID() + ".png\"", "image/png", poster);
+        part(body, boundary, "form-data; name=\"movieDto\"", "application/json", objectMapper.writeValueAsBytes(movie));
+        body.write(("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        HttpRequest request = request("/movies/add-movie", admin)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            return -response.statusCode();
+        }
+        return objectMapper.readTree(response.body()).path("movieId").asInt();
+    }
+
+    public int patchMovie(Session admin, int movieId, Map<String, Object> changes) throws IOException, InterruptedException {
+        HttpRequest request = request("/movies/update/" + movieId, admin)
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(changes)))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    public int deleteMovie(Session admin, int movieId) throws IOException, InterruptedException {
+        HttpRequest request = request("/movies/delete/" + movieId, admin).DELETE().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest.Builder request(String path, Session session) {
+        return request(baseUrl, path, session);
+    }
+
+    private HttpRequest.Builder request(String url, String path, Session session) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url + path)).timeout(timeout);
+        if (session != null) {
+            builder.header("Authorization", "Bearer " + session.accessToken());
+        }
+        return builder;
+    }
+
+    private static void part(ByteArrayOutputStream body, String boundary, String disposition, String contentType,
+                             byte[] content) throws IOException {
+        body.write(("--" + boundary + "\r\nContent-Disposition: " + disposition + "\r\nContent-Type: " + contentType
+                + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        body.write(content);
+        body.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
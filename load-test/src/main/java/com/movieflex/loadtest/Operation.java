@@ -0,0 +1,28 @@
+package com.movieflex.loadtest;
+
+// The traffic mix, weights are relative and can be overridden with --mix.<name>=<weight>
+public enum Operation {
+    DETAIL(50),
+    PAGE(12),
+    SORTED_PAGE(10),
+    POSTER(18),
+    LOGIN(3),
+    REFRESH(4),
+    ADD(1),
+    UPDATE(1.5),
+    DELETE(0.5);
+
+    private final double defaultWeight;
+
+    Operation(double defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+
+    public double defaultWeight() {
+        return defaultWeight;
+    }
+
+    public String key() {
+        return name().toLowerCase().replace('_', '-');
+    }
+}
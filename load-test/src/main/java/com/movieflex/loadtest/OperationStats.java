@@ -0,0 +1,62 @@
+package com.movieflex.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latencies and outcomes of one operation during the measured part of the run
+public class OperationStats {
+    // one hour in microseconds is far beyond any request timeout
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final ConcurrentHashMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    // status 0 is a request that didn't get a response, e.g. a timeout or a refused connection
+    public void record(long latencyNanos, int status) {
+        recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (status == 0 || status >= 400) {
+            failures.increment();
+        }
+    }
+
+    // requests that were due but not sent because max-in-flight were already outstanding
+    public void drop() {
+        dropped.increment();
+    }
+
+    // moves what was recorded since the last call into the run total and returns it as an interval
+    public synchronized Histogram interval() {
+        Histogram interval = recorder.getIntervalHistogram();
+        total.add(interval);
+        return interval;
+    }
+
+    public synchronized Histogram total() {
+        interval();
+        return total.copy();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public Map<Integer, Long> statuses() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+}
@@ -0,0 +1,97 @@
+package com.movieflex.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// The outcome of one run. The JSON keeps the full histograms next to the percentiles, so runs of different
+// releases can be compared later, or merged, without rerunning them.
+public record Report(String label, String startedAt, double durationSeconds, Map<String, String> options,
+                     List<Result> operations, Result total) {
+
+    public record Result(String operation, long requests, long failures, long dropped, double throughput,
+                         double errorRate, double meanMillis, double p50Millis, double p90Millis, double p99Millis,
+                         double p999Millis, double maxMillis, Map<Integer, Long> statuses, String histogram) {
+
+        static Result of(String operation, Histogram histogram, long failures, long dropped, double seconds,
+                         Map<Integer, Long> statuses) {
+            long requests = histogram.getTotalCount();
+            ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+            int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+            return new Result(operation, requests, failures, dropped, requests / seconds,
+                    requests == 0 ? 0 : (double) failures / requests, histogram.getMean() / 1000.0,
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0, statuses,
+                    Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length)));
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    static Report of(String label, Instant startedAt, Duration duration, Map<String, String> options,
+                     Map<Operation, OperationStats> stats) {
+        double seconds = duration.toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+        List<Result> results = new ArrayList<>();
+        Histogram all = new Histogram(TimeUnit.HOURS.toMicros(1), 3);
+        long failures = 0;
+        long dropped = 0;
+        Map<Integer, Long> statuses = new TreeMap<>();
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            Histogram histogram = operationStats.total();
+            results.add(Result.of(entry.getKey().key(), histogram, operationStats.failures(), operationStats.dropped(),
+                    seconds, operationStats.statuses()));
+            all.add(histogram);
+            failures += operationStats.failures();
+            dropped += operationStats.dropped();
+            operationStats.statuses().forEach((status, count) -> statuses.merge(status, count, Long::sum));
+        }
+        return new Report(label, startedAt.toString(), seconds, options, results,
+                Result.of("total", all, failures, dropped, seconds, statuses));
+    }
+
+    public static Report read(ObjectMapper objectMapper, Path file) throws IOException {
+        return objectMapper.readValue(file.toFile(), Report.class);
+    }
+
+    public Path write(ObjectMapper objectMapper, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path file = dir.resolve("report-" + label.replaceAll("[^A-Za-z0-9._-]", "_") + "-"
+                + startedAt.replace(':', '-') + ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), this);
+        return file;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%n%s, %.0f s measured%n", label, durationSeconds);
+        out.printf("%-12s %9s %9s %8s %9s %9s %9s %9s %9s %9s%n", "operation", "requests", "req/s", "errors",
+                "dropped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Result result : operations) {
+            print(out, result);
+        }
+        print(out, total);
+        out.printf("statuses: %s%n", total.statuses());
+    }
+
+    private static void print(PrintStream out, Result result) {
+        out.printf("%-12s %9d %9.1f %7.2f%% %9d %9.1f %9.1f %9.1f %9.1f %9.1f%n", result.operation(), result.requests(),
+                result.throughput(), result.errorRate() * 100, result.dropped(), result.p50Millis(), result.p90Millis(),
+                result.p99Millis(), result.p999Millis(), result.maxMillis());
+    }
+}
@@ -0,0 +1,59 @@
+package com.movieflex.loadtest;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Lines up two reports operation by operation and flags the ones that got slower or less reliable
+public class ReportComparison {
+    private final Report baseline;
+    private final Report candidate;
+    private final double maxLatencyRegression;
+    private final double maxErrorRateIncrease;
+
+    public ReportComparison(Report baseline, Report candidate, double maxLatencyRegression, double maxErrorRateIncrease) {
+        this.baseline = baseline;
+        this.candidate = candidate;
+        this.maxLatencyRegression = maxLatencyRegression;
+        this.maxErrorRateIncrease = maxErrorRateIncrease;
+    }
+
+    // true when no operation regressed beyond the thresholds
+    public boolean print(PrintStream out) {
+        out.printf("%s -> %s%n", baseline.label(), candidate.label());
+        out.printf("%-12s %14s %14s %14s %14s %12s%n", "operation", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "errors");
+        Map<String, Report.Result> before = new HashMap<>();
+        for (Report.Result result : baseline.operations()) {
+            before.put(result.operation(), result);
+        }
+        before.put("total", baseline.total());
+        boolean passed = true;
+        List<Report.Result> after = new ArrayList<>(candidate.operations());
+        after.add(candidate.total());
+        for (Report.Result result : after) {
+            Report.Result old = before.get(result.operation());
+            if (old == null || old.requests() == 0 || result.requests() == 0) {
+                continue;
+            }
+            double p99Change = change(old.p99Millis(), result.p99Millis());
+            double errorIncrease = result.errorRate() - old.errorRate();
+            boolean regressed = p99Change > maxLatencyRegression || errorIncrease > maxErrorRateIncrease;
+            passed &= !regressed;
+            out.printf("%-12s %14s %14s %14s %14s %12s%s%n", result.operation(),
+                    delta(old.throughput(), result.throughput()), delta(old.p50Millis(), result.p50Millis()),
+                    delta(old.p99Millis(), result.p99Millis()), delta(old.p999Millis(), result.p999Millis()),
+                    String.format("%+.2f pt", errorIncrease * 100), regressed ? "  REGRESSED" : "");
+        }
+        return passed;
+    }
+
+    private static String delta(double before, double after) {
+        return String.format("%.1f %+.0f%%", after, change(before, after) * 100);
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before;
+    }
+}
@@ -0,0 +1,29 @@
+package com.movieflex.loadtest;
+
+// A logged in user, the tokens are swapped by login and refresh requests while others are using them
+public class Session {
+    private final String email;
+    private volatile String accessToken;
+    private volatile String refreshToken;
+
+    public Session(String email) {
+        this.email = email;
+    }
+
+    public String email() {
+        return email;
+    }
+
+    public String accessToken() {
+        return accessToken;
+    }
+
+    public String refreshToken() {
+        return refreshToken;
+    }
+
+    public synchronized void update(String accessToken, String refreshToken) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+    }
+}
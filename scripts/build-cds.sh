@@ -0,0 +1,12 @@
+#!/usr/bin/env bash
+# Builds the AOT processed jar, extracts it and records an AppCDS archive with a training run that
+# exits once the context has refreshed. The training run needs the database from docker-compose.yml.
+set -euo pipefail
+
+./mvnw -B -Paot -DskipTests package
+rm -rf target/cds
+java -Djarmode=tools -jar target/MovieAPI-0.0.1-SNAPSHOT.jar extract --destination target/cds
+java -XX:ArchiveClassesAtExit=target/cds/app.jsa -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar target/cds/MovieAPI-0.0.1-SNAPSHOT.jar
+
+echo "Run with: java -XX:SharedArchiveFile=target/cds/app.jsa -Dspring.aot.enabled=true -jar target/cds/MovieAPI-0.0.1-SNAPSHOT.jar"
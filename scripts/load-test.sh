@@ -0,0 +1,62 @@
+#!/usr/bin/env bash
+# Seeds the MySQL from docker-compose.yml with a catalog, restarts the application on it so it starts
+# the way it does after a deploy, drives the traffic mix from load-test/ at a fixed rate and writes a
+# report to target/load-test/reports. Extra arguments go to the load generator's run command.
+#   MOVIES=100000 RATE=500 scripts/load-test.sh --duration=PT5M --label=1.4.0
+#   scripts/load-test.sh compare target/load-test/reports/a.json target/load-test/reports/b.json
+# APP_ARGS go to the application, e.g. to compare Tomcat's thread pool with virtual threads on the same box:
+#   ./mvnw -B -Pvirtual-threads,reactive -DskipTests package
+#   RATE=2000 scripts/load-test.sh --label=platform --max-in-flight=5000
+#   RATE=2000 APP_ARGS=--spring.threads.virtual.enabled=true scripts/load-test.sh --label=virtual --max-in-flight=5000
+# and with the reads sent to the reactive read path, logins and writes stay on Tomcat:
+#   RATE=2000 APP_ARGS=--project.reactive.enabled=true scripts/load-test.sh --label=reactive --max-in-flight=5000 \
+#       --read-url=http://localhost:8081
+# the jar is only built when there is none, so build it with those profiles first
+set -euo pipefail
+
+base=http://localhost:8080
+jar=target/MovieAPI-0.0.1-SNAPSHOT.jar
+work=$PWD/target/load-test
+posters=$work/posters
+loadtest() {
+    ./mvnw -B -q -f load-test/pom.xml compile exec:java -Dexec.args="$*"
+}
+
+if [ "${1:-}" = "compare" ]; then
+    loadtest "$@"
+    exit
+fi
+
+docker compose up -d mysql
+until docker compose exec -T mysql mysqladmin ping -uroot -proot --silent 2>/dev/null; do
+    sleep 1
+done
+[ -f "$jar" ] || ./mvnw -B -DskipTests package
+mkdir -p "$posters"
+
+start_app() {
+    # the hot set of the previous run is left in place, like on a redeploy
+    java ${JAVA_OPTS:-} -jar "$jar" --project.poster="$posters" --project.warm-up.snapshot-file="$work/hot-set.json" \
+        ${APP_ARGS:-} > "$work/app-$1.log" 2>&1 &
+    pid=$!
+    trap 'kill $pid 2>/dev/null || true' EXIT
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "$base/actuator/health/readiness")" = "200" ]; do
+        kill -0 $pid 2>/dev/null || { echo "application exited, see $work/app-$1.log" >&2; exit 1; }
+        sleep 0.2
+    done
+}
+
+stop_app() {
+    kill $pid
+    wait $pid 2>/dev/null || true
+}
+
+# the schema is created by the application's migrations, so it has to run once before seeding
+start_app seed
+loadtest seed --movies="${MOVIES:-10000}" --posters="${POSTERS:-500}" --users="${USERS:-50}" \
+    --poster-dir="$posters" --catalog="$work/catalog.json"
+stop_app
+
+start_app run
+loadtest run --rate="${RATE:-200}" --catalog="$work/catalog.json" --report-dir="$work/reports" "$@"
+stop_app
@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+# Starts the service with the given command, reports time until the first HTTP response and the
+# resident memory at that point, then stops it.
+#   scripts/measure-startup.sh jvm java -jar target/MovieAPI-0.0.1-SNAPSHOT.jar
+#   scripts/measure-startup.sh cds java -XX:SharedArchiveFile=target/cds/app.jsa -Dspring.aot.enabled=true -jar target/cds/MovieAPI-0.0.1-SNAPSHOT.jar
+set -euo pipefail
+
+label=$1
+shift
+url=${MEASURE_URL:-http://localhost:8080/auth/login}
+
+start=$(date +%s%N)
+"$@" > "target/startup-$label.log" 2>&1 &
+pid=$!
+trap 'kill $pid 2>/dev/null || true' EXIT
+
+until [ "$(curl -s -o /dev/null -w '%{http_code}' -X POST "$url")" != "000" ]; do
+    if ! kill -0 $pid 2>/dev/null; then
+        echo "$label: process exited, see target/startup-$label.log" >&2
+        exit 1
+    fi
+    sleep 0.05
+done
+end=$(date +%s%N)
+
+rss_kb=$(awk '/VmRSS/ {print $2}' /proc/$pid/status 2>/dev/null || ps -o rss= -p $pid)
+echo "$label: first response after $(( (end - start) / 1000000 )) ms, RSS $(( rss_kb / 1024 )) MB"
@@ -0,0 +1,96 @@
+#!/usr/bin/env bash
+# Builds the native executable (unless target/movieapi exists), runs it against the MySQL from
+# docker-compose.yml and exercises auth, movie writes/reads and the second-level cache. Startup time
+# and RSS are reported for the native binary next to the JVM jar built in the same run.
+#   scripts/native-smoke-test.sh          build if needed, measure, smoke test
+#   scripts/native-smoke-test.sh agent    run the JVM jar under the tracing agent through the same
+#                                         requests and merge what it records into the metadata in
+#                                         src/main/resources/META-INF/native-image
+set -euo pipefail
+
+base=http://localhost:8080
+jar=target/MovieAPI-0.0.1-SNAPSHOT.jar
+binary=target/movieapi
+metadata=src/main/resources/META-INF/native-image/com.movieflex/MovieAPI
+
+docker compose up -d mysql
+until docker compose exec -T mysql mysqladmin ping -uroot -proot --silent 2>/dev/null; do
+    sleep 1
+done
+
+wait_for_app() {
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' -X POST "$base/auth/login")" != "000" ]; do
+        kill -0 "$1" 2>/dev/null || { echo "application exited, see target/native-smoke.log" >&2; exit 1; }
+        sleep 0.05
+    done
+}
+
+check() {
+    local expected=$1 actual=$2 what=$3
+    if [ "$actual" != "$expected" ]; then
+        echo "FAIL $what: expected $expected, got $actual" >&2
+        exit 1
+    fi
+    echo "ok   $what"
+}
+
+exercise() {
+    local run_id=$(date +%s%N) body token movie_id
+    local email="smoke-$run_id@movieflex.local"
+    # poster deletes are asynchronous, so a name reused by the next run could still be taken
+    local poster="target/native-smoke-poster-$run_id.png"
+    printf 'smoke poster' > "$poster"
+
+    body=$(curl -s -X POST "$base/auth/register" -H 'Content-Type: application/json' \
+        -d "{\"name\":\"smoke\",\"email\":\"$email\",\"username\":\"${email%@*}\",\"password\":\"password1\"}")
+    check true "$(grep -q accessToken <<<"$body" && echo true || echo false)" "register"
+
+    docker compose exec -T mysql mysql -uroot -proot movies -e "update users set role='ADMIN' where email='$email'" 2>/dev/null
+    body=$(curl -s -X POST "$base/auth/login" -H 'Content-Type: application/json' \
+        -d "{\"email\":\"$email\",\"password\":\"password1\"}")
+    token=$(sed -E 's/.*"accessToken":"([^"]+)".*/\1/' <<<"$body")
+    check true "$([ -n "$token" ] && [ "$token" != "$body" ] && echo true || echo false)" "login"
+
+    body=$(curl -s -X POST "$base/movies/add-movie" -H "Authorization: Bearer $token" \
+        -F "file=@$poster" \
+        -F 'movieDto={"title":"Smoke","director":"Native","studio":"GraalVM","movieCast":["A","B"],"releaseYear":2024,"poster":"smoke.png"}')
+    movie_id=$(sed -nE 's/.*"movieId":([0-9]+).*/\1/p' <<<"$body")
+    check true "$([ -n "$movie_id" ] && echo true || echo false)" "add movie"
+
+    # second read is served from the second-level cache
+    check 200 "$(curl -s -o /dev/null -w '%{http_code}' -H "Authorization: Bearer $token" "$base/movies/$movie_id")" "get movie"
+    check 200 "$(curl -s -o /dev/null -w '%{http_code}' -H "Authorization: Bearer $token" "$base/movies/$movie_id")" "get movie (cached)"
+    check 200 "$(curl -s -o /dev/null -w '%{http_code}' -H "Authorization: Bearer $token" "$base/movies/allMoviesPageSort?pageSize=5&sortBy=title")" "page movies"
+    check 200 "$(curl -s -o /dev/null -w '%{http_code}' -H "Authorization: Bearer $token" -H 'Accept: application/cbor' "$base/movies/all?fields=title")" "projected cbor"
+    check 200 "$(curl -s -o /dev/null -w '%{http_code}' -H "Authorization: Bearer $token" "$base/admin/cache-stats")" "cache stats"
+    check 204 "$(curl -s -o /dev/null -w '%{http_code}' -X DELETE -H "Authorization: Bearer $token" "$base/movies/delete/$movie_id")" "delete movie"
+    check 403 "$(curl -s -o /dev/null -w '%{http_code}' "$base/movies/all")" "unauthenticated"
+    rm -f "$poster"
+}
+
+run() {
+    "$@" > target/native-smoke.log 2>&1 &
+    pid=$!
+    trap 'kill $pid 2>/dev/null || true' EXIT
+    wait_for_app $pid
+    exercise
+    rss_kb=$(awk '/VmRSS/ {print $2}' /proc/$pid/status)
+    echo "RSS after smoke test: $(( rss_kb / 1024 )) MB"
+    kill $pid
+    wait $pid 2>/dev/null || true
+}
+
+if [ "${1:-}" = "agent" ]; then
+    [ -f "$jar" ] || ./mvnw -B -DskipTests package
+    mkdir -p "$metadata"
+    run java -agentlib:native-image-agent=config-merge-dir="$metadata" -jar "$jar"
+    echo "Merged recorded metadata into $metadata, rebuild with -Pnative"
+    exit 0
+fi
+
+[ -x "$binary" ] || ./mvnw -B -Pnative -DskipTests package
+
+scripts/measure-startup.sh jvm java -jar "$jar"
+scripts/measure-startup.sh native "$binary"
+run "$binary"
+echo "native smoke test passed"
@@ -2,8 +2,15 @@ package com.movieflex;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// the R2DBC pool of the reactive read path is only created when it is enabled (ReactiveReadConfig), and its
+// transaction manager would otherwise take the place of the JPA one. By name, as R2DBC is only on the
+// classpath of a -Preactive build.
+@SpringBootApplication(excludeName = {
+        "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration",
+        "org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration"})
+@EnableScheduling
 public class MovieApiApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,96 @@
+package com.movieflex.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// AIMD concurrency limit driven by latency: grows by one while requests complete close to the
+// no-load round trip time and backs off multiplicatively once latency (or errors) show queueing
+public class AdaptiveConcurrencyLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final int probeInterval;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // every completing request takes this; a lock rather than synchronized, so that on virtual threads a
+    // contended sample parks the request instead of pinning its carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // guarded by lock
+    private double estimatedLimit;
+    private long noLoadRttNanos = Long.MAX_VALUE;
+    private long samplesSinceProbe;
+    private long lastBackoffNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    double tolerance, double backoffRatio, int probeInterval) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limit bounds: " + minLimit + ".." + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.probeInterval = probeInterval;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightBeforeRelease = inFlight.getAndDecrement();
+        onSample(rttNanos, inFlightBeforeRelease, dropped);
+    }
+
+    private void onSample(long rttNanos, int inFlightAtCompletion, boolean dropped) {
+        lock.lock();
+        try {
+            // re-probe the no-load latency periodically so the baseline can follow real changes
+            if (++samplesSinceProbe >= probeInterval) {
+                samplesSinceProbe = 0;
+                noLoadRttNanos = rttNanos;
+            } else if (rttNanos < noLoadRttNanos) {
+                noLoadRttNanos = rttNanos;
+            }
+
+            long now = System.nanoTime();
+            // a slow request says nothing about queueing while the limit is far from used: the mix has cache hits
+            // well under a millisecond next to database reads, and those reads alone must not shrink an idle limit
+            boolean saturated = inFlightAtCompletion * 2 >= estimatedLimit;
+            if (dropped || (saturated && rttNanos > noLoadRttNanos * tolerance)) {
+                // back off at most once per round trip so one burst of slow responses doesn't collapse the limit
+                if (now - lastBackoffNanos >= rttNanos) {
+                    lastBackoffNanos = now;
+                    estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+                }
+            } else if (saturated) {
+                estimatedLimit = Math.min(maxLimit, estimatedLimit + 1);
+            }
+            limit = (int) estimatedLimit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,79 @@
+package com.movieflex.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Service
+public class AdmissionFilterService extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final String retryAfterSeconds;
+    private final Map<RequestClass, AdaptiveConcurrencyLimit> limits = new EnumMap<>(RequestClass.class);
+
+    public AdmissionFilterService(Environment env) {
+        this.enabled = env.getProperty("admission.enabled", Boolean.class, true);
+        this.retryAfterSeconds = env.getProperty("admission.retry-after-seconds", "1");
+        double tolerance = env.getProperty("admission.tolerance", Double.class, 2.0);
+        double backoffRatio = env.getProperty("admission.backoff-ratio", Double.class, 0.9);
+        int probeInterval = env.getProperty("admission.probe-interval", Integer.class, 1000);
+        for (RequestClass requestClass : RequestClass.values()) {
+            String prefix = "admission." + requestClass.name().toLowerCase() + ".";
+            limits.put(requestClass, new AdaptiveConcurrencyLimit(
+                    env.getProperty(prefix + "initial-limit", Integer.class, 20),
+                    env.getProperty(prefix + "min-limit", Integer.class, 1),
+                    env.getProperty(prefix + "max-limit", Integer.class, 200),
+                    tolerance, backoffRatio, probeInterval));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RequestClass requestClass = RequestClass.of(request);
+        AdaptiveConcurrencyLimit limit = limits.get(requestClass);
+        if (!limit.tryAcquire()) {
+            reject(response, requestClass);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= 500;
+        } finally {
+            limit.release(System.nanoTime() - start, dropped);
+        }
+    }
+
+    // probes must keep answering while the node sheds load, or it gets restarted for being busy
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator/health");
+    }
+
+    private void reject(HttpServletResponse response, RequestClass requestClass) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.getWriter().write("{\"type\":\"about:blank\",\"title\":\"Service Unavailable\",\"status\":503,"
+                + "\"detail\":\"Too many concurrent " + requestClass.name().toLowerCase() + " requests, please retry later\"}");
+    }
+}
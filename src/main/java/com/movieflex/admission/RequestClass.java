@@ -0,0 +1,21 @@
+package com.movieflex.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+public enum RequestClass {
+    READ,
+    WRITE,
+    AUTH;
+
+    public static RequestClass of(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith(request.getContextPath() + "/auth/")) {
+            return AUTH;
+        }
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) {
+            return READ;
+        }
+        // POST/PUT/PATCH/DELETE, including multipart poster uploads
+        return WRITE;
+    }
+}
@@ -1,6 +1,7 @@
 package com.movieflex.auth.config;
 
 import com.movieflex.auth.repositories.UserRepository;
+import com.movieflex.datasource.ReadRouting;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -21,7 +22,9 @@ public class ApplicationConfig {
     }
     @Bean
     public UserDetailsService userDetailsService() {
+        // a user that just registered may not have reached the replica yet, so retry a miss on the primary
         return username -> userRepository.findByEmail(username)
+                .or(() -> ReadRouting.onPrimary(() -> userRepository.findByEmail(username)))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
     }
 
@@ -1,5 +1,6 @@
 package com.movieflex.auth.config;
 
+import com.movieflex.admission.AdmissionFilterService;
 import com.movieflex.auth.services.AuthFilterService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -20,6 +21,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfiguration {
 
     private final AuthFilterService authFilterService;
+    private final AdmissionFilterService admissionFilterService;
     private final AuthenticationProvider authenticationProvider;
 
     @Bean
@@ -29,12 +31,17 @@ public class SecurityConfiguration {
                 .authorizeHttpRequests(auth-> auth
                         .requestMatchers("/auth/**")
                         .permitAll()
+                        // liveness and readiness probes of the orchestrator
+                        .requestMatchers("/actuator/health", "/actuator/health/**")
+                        .permitAll()
                         .anyRequest()
                         .authenticated())
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider)
-                .addFilterBefore(authFilterService, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(authFilterService, UsernamePasswordAuthenticationFilter.class)
+                // shed load before the JWT check and user lookup are paid for
+                .addFilterBefore(admissionFilterService, AuthFilterService.class);
         return http.build();
     }
 }
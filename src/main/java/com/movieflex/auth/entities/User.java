@@ -8,6 +8,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -16,6 +18,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -41,9 +45,6 @@ public class User implements UserDetails {
     @Size(min = 8, message = "The password must have at least 5 characters")
     private String password;
 
-    @OneToOne(mappedBy = "user")
-    private RefreshToken refreshToken;
-
     @Enumerated(EnumType.STRING)
     private UserRole role;
 
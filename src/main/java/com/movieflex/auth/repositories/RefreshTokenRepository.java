@@ -1,10 +1,14 @@
 package com.movieflex.auth.repositories;
 
 import com.movieflex.auth.entities.RefreshToken;
+import com.movieflex.auth.entities.User;
 import org.springframework.data.repository.CrudRepository;
 
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends CrudRepository<RefreshToken, Integer> {
     Optional<RefreshToken> findByRefreshToken(String refreshToken);
+
+    // the user side of the one-to-one isn't mapped, it would be loaded with every cached user
+    Optional<RefreshToken> findByUser(User user);
 }
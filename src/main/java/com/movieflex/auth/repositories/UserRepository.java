@@ -1,10 +1,17 @@
 package com.movieflex.auth.repositories;
 
 import com.movieflex.auth.entities.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
+     // runs on every authenticated request, served from the query cache and the User region
+     @Transactional(readOnly = true)
+     @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
      Optional<User> findByEmail(String username);
 }
@@ -1,5 +1,7 @@
 package com.movieflex.auth.services;
 
+import com.movieflex.auth.entities.User;
+import com.movieflex.logging.AccessLogValve;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletOutputStream;
@@ -49,9 +51,10 @@ public class AuthFilterService extends OncePerRequestFilter {
         username = jwtService.extractUsername(jwt);
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            System.out.println(userDetails.getUsername());
-            System.out.println(userDetails.getAuthorities());
             if(jwtService.isTokenValid(jwt, userDetails)) {
+                if (userDetails instanceof User user) {
+                    request.setAttribute(AccessLogValve.USER_ID_ATTRIBUTE, user.getId());
+                }
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities()
                 );
@@ -6,12 +6,15 @@ import com.movieflex.auth.repositories.UserRepository;
 import com.movieflex.auth.utlis.AuthResponse;
 import com.movieflex.auth.utlis.LoginRequest;
 import com.movieflex.auth.utlis.RegisterRequest;
+import com.movieflex.entities.CacheChangeType;
+import com.movieflex.services.CacheInvalidationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -21,6 +24,8 @@ public class AuthService {
     private final JwtService jwtService;
     private final RefreshTokenService refreshTokenService;
     private  final AuthenticationManager authenticationManager;
+    private final CacheInvalidationService cacheInvalidationService;
+    @Transactional
     public AuthResponse register(RegisterRequest registerRequest) {
         var user = User.builder()
                 .name(registerRequest.getName())
@@ -30,6 +35,8 @@ public class AuthService {
                 .role(UserRole.USER)
                 .build();
         User saveUser = userRepository.save(user);
+        // other nodes may hold a cached empty findByEmail result for this address
+        cacheInvalidationService.publish(CacheChangeType.USER, saveUser.getId());
         var accessToken = jwtService.generateToken(saveUser);
         var refreshToken = refreshTokenService.createRefreshToken(saveUser.getEmail());
         return  AuthResponse.builder()
@@ -38,6 +45,7 @@ public class AuthService {
                 .build();
     }
 
+    @Transactional
     public AuthResponse login(LoginRequest loginRequest) {
         authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
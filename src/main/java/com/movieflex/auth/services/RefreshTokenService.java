@@ -22,7 +22,7 @@ public class RefreshTokenService {
     public RefreshToken createRefreshToken(String username) {
         User user = userRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
-        RefreshToken refreshToken = user.getRefreshToken();
+        RefreshToken refreshToken = refreshTokenRepository.findByUser(user).orElse(null);
         if (refreshToken == null) {
             long refreshTokenValidity = 50*60*60*10000;
             refreshToken = RefreshToken.builder()
@@ -0,0 +1,25 @@
+package com.movieflex.config;
+
+import com.movieflex.auth.utlis.AuthResponse;
+import com.movieflex.auth.utlis.LoginRequest;
+import com.movieflex.auth.utlis.RefreshTokenRequest;
+import com.movieflex.auth.utlis.RegisterRequest;
+import com.movieflex.dto.MovieBatchResponse;
+import com.movieflex.dto.MovieDto;
+import com.movieflex.dto.MoviePageResponse;
+import com.movieflex.services.HotKeyTracker;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+// MovieDto is also read by a hand-made ObjectMapper in MovieController, which the AOT engine does not see,
+// and the hot set snapshot is read and written by HotKeyTracker outside of any controller
+@Configuration
+@ImportRuntimeHints(NativeRuntimeHints.class)
+@RegisterReflectionForBinding({
+        MovieDto.class, MoviePageResponse.class, MovieBatchResponse.class,
+        AuthResponse.class, LoginRequest.class, RegisterRequest.class, RefreshTokenRequest.class,
+        HotKeyTracker.HotSet.class, HotKeyTracker.HotEntry.class, HotKeyTracker.HotPage.class
+})
+public class NativeConfig {
+}
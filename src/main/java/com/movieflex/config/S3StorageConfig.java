@@ -0,0 +1,39 @@
+package com.movieflex.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.net.URI;
+
+@Configuration
+@ConditionalOnProperty(name = "project.storage.type", havingValue = "s3")
+@EnableConfigurationProperties(S3StorageProperties.class)
+public class S3StorageConfig {
+
+    @Bean(destroyMethod = "close")
+    public S3Client s3Client(S3StorageProperties properties) {
+        AwsCredentialsProvider credentials = properties.accessKey() == null || properties.accessKey().isBlank()
+                ? DefaultCredentialsProvider.create()
+                : StaticCredentialsProvider.create(AwsBasicCredentials.create(properties.accessKey(), properties.secretKey()));
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(properties.region()))
+                .credentialsProvider(credentials)
+                .forcePathStyle(properties.pathStyleAccess())
+                // enough pooled connections for parallel part uploads next to concurrent poster downloads
+                .httpClientBuilder(ApacheHttpClient.builder().maxConnections(properties.maxConnections()));
+        if (properties.endpoint() != null && !properties.endpoint().isBlank()) {
+            builder.endpointOverride(URI.create(properties.endpoint()));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.movieflex.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+// endpoint is only set for S3 compatible stores such as MinIO, blank keys fall back to the default AWS credential chain
+@ConfigurationProperties("project.storage.s3")
+public record S3StorageProperties(String endpoint,
+                                  @DefaultValue("us-east-1") String region,
+                                  @DefaultValue("movieflex-posters") String bucket,
+                                  String accessKey,
+                                  String secretKey,
+                                  @DefaultValue("true") boolean pathStyleAccess,
+                                  @DefaultValue("false") boolean createBucket,
+                                  @DefaultValue("64") int maxConnections,
+                                  @DefaultValue("8MB") DataSize multipartThreshold,
+                                  @DefaultValue("8MB") DataSize partSize,
+                                  @DefaultValue("4") int uploadParallelism,
+                                  @DefaultValue Cache cache) {
+
+    // read-through copy of downloaded posters on local disk, off when no directory is set
+    public record Cache(String directory, @DefaultValue("1GB") DataSize maxSize) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.movieflex.config;
+
+import com.movieflex.logging.AccessLogValve;
+import com.movieflex.logging.AccessLogWriter;
+import com.movieflex.metrics.ResponseFormatMetrics;
+import com.movieflex.metrics.ResponseFormatMetricsValve;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class WebServerConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> responseFormatMetricsCustomizer(ResponseFormatMetrics metrics) {
+        return factory -> factory.addContextValves(new ResponseFormatMetricsValve(metrics));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "project.access-log.enabled", havingValue = "true", matchIfMissing = true)
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> accessLogCustomizer(AccessLogWriter writer) {
+        return factory -> factory.addContextValves(new AccessLogValve(writer.buffer()));
+    }
+}
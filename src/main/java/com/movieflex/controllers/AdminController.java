@@ -0,0 +1,71 @@
+package com.movieflex.controllers;
+
+import com.movieflex.metrics.CacheRegionMetrics;
+import com.movieflex.metrics.ResponseFormatMetrics;
+import com.movieflex.profiling.JdbcProfiler;
+import com.movieflex.services.MoviePageCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin")
+@PreAuthorize("hasAuthority('ADMIN')")
+public class AdminController {
+    private final ResponseFormatMetrics responseFormatMetrics;
+    private final JdbcProfiler jdbcProfiler;
+    private final CacheRegionMetrics cacheRegionMetrics;
+    private final MoviePageCache moviePageCache;
+
+    public AdminController(ResponseFormatMetrics responseFormatMetrics, JdbcProfiler jdbcProfiler,
+                           CacheRegionMetrics cacheRegionMetrics, MoviePageCache moviePageCache) {
+        this.responseFormatMetrics = responseFormatMetrics;
+        this.jdbcProfiler = jdbcProfiler;
+        this.cacheRegionMetrics = cacheRegionMetrics;
+        this.moviePageCache = moviePageCache;
+    }
+
+    @GetMapping("/response-formats")
+    public ResponseEntity<Map<String, ResponseFormatMetrics.FormatSnapshot>> getResponseFormatStats() {
+        return ResponseEntity.ok(responseFormatMetrics.snapshot());
+    }
+
+    @DeleteMapping("/response-formats")
+    public ResponseEntity<Void> resetResponseFormatStats() {
+        responseFormatMetrics.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/sql-stats")
+    public ResponseEntity<List<JdbcProfiler.StatementSnapshot>> getSqlStats() {
+        return ResponseEntity.ok(jdbcProfiler.snapshot());
+    }
+
+    @DeleteMapping("/sql-stats")
+    public ResponseEntity<Void> resetSqlStats() {
+        jdbcProfiler.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, CacheRegionMetrics.RegionSnapshot>> getCacheStats() {
+        return ResponseEntity.ok(cacheRegionMetrics.snapshot());
+    }
+
+    @DeleteMapping("/cache-stats")
+    public ResponseEntity<Void> resetCacheStats() {
+        cacheRegionMetrics.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/page-cache-stats")
+    public ResponseEntity<MoviePageCache.CacheStats> getPageCacheStats() {
+        return ResponseEntity.ok(moviePageCache.stats());
+    }
+}
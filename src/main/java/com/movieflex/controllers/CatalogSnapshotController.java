@@ -0,0 +1,125 @@
+package com.movieflex.controllers;
+
+import com.movieflex.exceptions.SnapshotUnavailableException;
+import com.movieflex.services.CatalogSnapshotService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+// The whole catalog in one file for bulk consumers, see CatalogSnapshotService. Clients revalidate with
+// If-None-Match and resume interrupted downloads with Range; the bytes are handed to Tomcat's sendfile,
+// so the file goes from the page cache to the socket without passing through the heap.
+@RestController
+@RequestMapping("/movies")
+public class CatalogSnapshotController {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    public CatalogSnapshotController(CatalogSnapshotService catalogSnapshotService) {
+        this.catalogSnapshotService = catalogSnapshotService;
+    }
+
+    @GetMapping("/snapshot")
+    public void getCatalogSnapshot(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CatalogSnapshotService.Snapshot snapshot = catalogSnapshotService.current();
+        if (snapshot == null) {
+            throw new SnapshotUnavailableException("The catalog snapshot is being built, please retry later");
+        }
+        response.setHeader(HttpHeaders.ETAG, snapshot.etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, snapshot.builtAt().toEpochMilli());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // edge caches may keep it, but have to check the ETag before serving it again
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.equals("*") || ifNoneMatch.contains(snapshot.etag()))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long length = snapshot.length();
+        long start = 0;
+        long end = length;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // a range of an older version would be spliced onto the wrong bytes, so that gets the whole file
+        if (range != null && (ifRange == null || ifRange.equals(snapshot.etag()))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+        response.setContentType("application/gzip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"catalog.ndjson.gz\"");
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat opens the file after this returns, versions are kept for a build for that reason
+            request.setAttribute(SENDFILE_FILENAME, snapshot.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(snapshot.file(), StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel channel = Channels.newChannel(out);
+            for (long position = start; position < end; ) {
+                position += file.transferTo(position, end - position, channel);
+            }
+        }
+    }
+
+    // {start, end exclusive} for a single satisfiable range, an empty array to send the whole file for
+    // anything this doesn't handle (multiple ranges, other units), null when nothing of it is in the file
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // the last n bytes
+                long suffix = Long.parseLong(last);
+                return suffix <= 0 || length == 0 ? null : new long[]{Math.max(0, length - suffix), length};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length : Math.min(Long.parseLong(last) + 1, length);
+            if (start >= length || end <= start) {
+                return start >= length ? null : new long[0];
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package com.movieflex.controllers;
 
 import com.movieflex.services.FileService;
+import com.movieflex.services.ViewCounterService;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StreamUtils;
@@ -17,21 +17,25 @@ import java.io.InputStream;
 public class FileController {
     private final FileService fileService;
 
-    public FileController(FileService fileService) {
+    private final ViewCounterService viewCounterService;
+
+    public FileController(FileService fileService, ViewCounterService viewCounterService) {
         this.fileService = fileService;
+        this.viewCounterService = viewCounterService;
     }
-    @Value("${project.poster}")
-    private String path;
     @PostMapping("/upload")
     public ResponseEntity uploadFileHandler(@RequestPart MultipartFile file) throws IOException {
-        String uploadedFileName = fileService.uploadFile(path, file);
+        String uploadedFileName = fileService.uploadFile(file);
         return ResponseEntity.ok().body("File uploaded : "+  uploadedFileName);
     }
 
     @GetMapping("/{fileName}")
     public void serverFileHandler(@PathVariable String fileName, HttpServletResponse response) throws IOException {
-        InputStream resourceFile = fileService.getResourceFile(path, fileName);
-        response.setContentType(MediaType.IMAGE_PNG_VALUE);
-        StreamUtils.copy(resourceFile, response.getOutputStream());
+        // streamed straight through, an object store connection is released on close
+        try (InputStream resourceFile = fileService.getResourceFile(fileName)) {
+            response.setContentType(MediaType.IMAGE_PNG_VALUE);
+            StreamUtils.copy(resourceFile, response.getOutputStream());
+        }
+        viewCounterService.recordPosterView(fileName);
     }
 }
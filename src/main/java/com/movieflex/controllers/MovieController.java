@@ -2,11 +2,17 @@ package com.movieflex.controllers;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movieflex.dto.MovieBatchResponse;
 import com.movieflex.dto.MovieDto;
+import com.movieflex.dto.MovieField;
 import com.movieflex.dto.MoviePageResponse;
 import com.movieflex.exceptions.EmptyFileException;
+import com.movieflex.services.CastIndex;
 import com.movieflex.services.MovieService;
+import com.movieflex.services.SimilarMovieIndex;
+import com.movieflex.services.ViewCounterService;
 import com.movieflex.utlis.AppConstants;
+import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -21,8 +27,18 @@ import java.util.List;
 public class MovieController {
     private final MovieService movieService;
 
-    public MovieController(MovieService movieService) {
+    private final ViewCounterService viewCounterService;
+
+    private final SimilarMovieIndex similarMovieIndex;
+
+    private final CastIndex castIndex;
+
+    public MovieController(MovieService movieService, ViewCounterService viewCounterService,
+                           SimilarMovieIndex similarMovieIndex, CastIndex castIndex) {
         this.movieService = movieService;
+        this.viewCounterService = viewCounterService;
+        this.similarMovieIndex = similarMovieIndex;
+        this.castIndex = castIndex;
     }
     @PreAuthorize("hasAuthority('ADMIN')")
     @PostMapping("add-movie")
@@ -40,13 +56,53 @@ public class MovieController {
     }
 
     @GetMapping("{movieId}")
-    public ResponseEntity<MovieDto> getMovieHandler(@PathVariable Integer movieId) {
-        return ResponseEntity.ok(movieService.getMovieById(movieId));
+    public ResponseEntity<MovieDto> getMovieHandler(@PathVariable Integer movieId,
+                                                    @RequestParam(required = false) String fields) {
+        MovieDto movieDto = movieService.getMovieById(movieId, MovieField.parse(fields));
+        viewCounterService.recordMovieView(movieId);
+        return ResponseEntity.ok(movieDto);
+    }
+
+    @GetMapping("{movieId}/similar")
+    public ResponseEntity<List<MovieDto>> getSimilarMovies(@PathVariable Integer movieId,
+                                                           @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(movieService.getMoviesByIds(similarMovieIndex.getSimilarIds(movieId, limit)).movieDtos());
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<MovieDto>> getTrendingMovies(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(movieService.getMoviesByIds(viewCounterService.getTrendingIds(limit)).movieDtos());
+    }
+
+    @GetMapping("/most-viewed")
+    public ResponseEntity<List<MovieDto>> getMostViewedMovies(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(movieService.getMoviesByIds(viewCounterService.getMostViewedIds(limit)).movieDtos());
+    }
+
+    // movies of one cast member in id order, the name must match exactly
+    @GetMapping("/cast/{name}")
+    public ResponseEntity<MoviePageResponse> getMoviesByCastMember(
+            @PathVariable String name,
+            @RequestParam(defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
+            @RequestParam(defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize
+    ) {
+        Page<Integer> movieIds = castIndex.getMovieIds(name, pageNumber, pageSize);
+        return ResponseEntity.ok(new MoviePageResponse(movieService.getMoviesByIds(movieIds.getContent()).movieDtos(),
+                pageNumber, pageSize,
+                movieIds.getTotalElements(),
+                movieIds.getTotalPages(),
+                movieIds.isLast()
+        ));
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<MovieDto>> getAllMovies() {
-        return ResponseEntity.ok(movieService.getAllMovies());
+    public ResponseEntity<List<MovieDto>> getAllMovies(@RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(movieService.getAllMovies(MovieField.parse(fields)));
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<MovieBatchResponse> getMoviesByIdsHandler(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(movieService.getMoviesByIds(ids));
     }
 
     @PutMapping("/update/{movieId}")
@@ -61,6 +117,11 @@ public class MovieController {
         return ResponseEntity.ok(movieService.updateMovie(movieId, dto, file));
     }
 
+    @PatchMapping("/update/{movieId}")
+    public ResponseEntity<MovieDto> patchMovieHandler(@PathVariable Integer movieId, @RequestBody MovieDto changes) {
+        return ResponseEntity.ok(movieService.patchMovie(movieId, changes));
+    }
+
     @DeleteMapping("/delete/{movieId}")
     public ResponseEntity<Void> deleteMovieHandler(@PathVariable Integer movieId) throws IOException {
         movieService.deleteMovie(movieId);
@@ -70,9 +131,10 @@ public class MovieController {
     @GetMapping("/allMoviesPage")
     public ResponseEntity<MoviePageResponse> getMoviesWithPagination(
         @RequestParam(defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
-        @RequestParam(defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize
+        @RequestParam(defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
+        @RequestParam(required = false) String fields
     ) {
-        return ResponseEntity.ok(movieService.getAllMoviesWithPagination(pageNumber, pageSize));
+        return ResponseEntity.ok(movieService.getAllMoviesWithPagination(pageNumber, pageSize, MovieField.parse(fields)));
     }
 
     @GetMapping("/allMoviesPageSort")
@@ -80,9 +142,11 @@ public class MovieController {
             @RequestParam(defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
             @RequestParam(defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
             @RequestParam(defaultValue = AppConstants.SORT_BY, required = false) String sortBy,
-            @RequestParam(defaultValue = AppConstants.SORT_DIR, required = false) String sortDirection
+            @RequestParam(defaultValue = AppConstants.SORT_DIR, required = false) String sortDirection,
+            @RequestParam(required = false) String fields
     ) {
-        return ResponseEntity.ok(movieService.getAllMoviesWithPaginationAndSorting(pageNumber, pageSize, sortBy, sortDirection));
+        return ResponseEntity.ok(movieService.getAllMoviesWithPaginationAndSorting(pageNumber, pageSize, sortBy, sortDirection,
+                MovieField.parse(fields)));
     }
 
     private MovieDto convertToMovieDto(String movieDtoObj) throws JsonProcessingException {
@@ -0,0 +1,114 @@
+package com.movieflex.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Only active once at least one replica is configured, otherwise Boot's single datasource is used
+@Configuration
+@ConditionalOnProperty("project.datasource.replicas[0].url")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfig implements WebMvcConfigurer {
+    private final DataSourceRoutingProperties routingProperties;
+
+    public DataSourceRoutingConfig(DataSourceRoutingProperties routingProperties) {
+        this.routingProperties = routingProperties;
+    }
+
+    // The pools are beans of their own, so they are closed on shutdown and get Boot's Hikari metrics and
+    // db health indicator. There is one replica-<n> bean per configured replica, registered before any
+    // bean is created, which is why the replicas are bound here rather than taken from the properties bean.
+    @Bean
+    public static BeanDefinitionRegistryPostProcessor replicaDataSources(Environment environment) {
+        List<DataSourceRoutingProperties.Replica> replicas = Binder.get(environment)
+                .bind("project.datasource.replicas", Bindable.listOf(DataSourceRoutingProperties.Replica.class))
+                .orElse(List.of());
+        return registry -> {
+            for (int i = 0; i < replicas.size(); i++) {
+                DataSourceRoutingProperties.Replica replica = replicas.get(i);
+                registry.registerBeanDefinition(replicaName(i), BeanDefinitionBuilder
+                        .genericBeanDefinition(HikariDataSource.class)
+                        .addPropertyValue("poolName", replicaName(i))
+                        .addPropertyValue("jdbcUrl", replica.url())
+                        .addPropertyValue("username", replica.username())
+                        .addPropertyValue("password", replica.password())
+                        .addPropertyValue("readOnly", true)
+                        .setDestroyMethodName("close")
+                        .getBeanDefinition());
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(BeanFactory beanFactory) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < routingProperties.replicas().size(); i++) {
+            replicas.put(replicaName(i), beanFactory.getBean(replicaName(i), DataSource.class));
+        }
+        return new ReplicaLagMonitor(replicas, routingProperties.maxReplicaLag());
+    }
+
+    // the pools are DataSources too, this is the one JPA, Flyway and everything else use
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaLagMonitor replicaLagMonitor) {
+        Map<Object, Object> targets = new HashMap<>(replicaLagMonitor.getReplicas());
+        targets.put(RoutingDataSource.PRIMARY, primaryDataSource);
+        RoutingDataSource routingDataSource = new RoutingDataSource(replicaLagMonitor);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+
+        // the physical connection is only fetched at the first statement, by which point the
+        // transaction's read-only flag is known and the routing decision can use it
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(routingDataSource);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesInterceptor readYourWritesInterceptor() {
+        return new ReadYourWritesInterceptor(routingProperties.readYourWritesWindow());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(readYourWritesInterceptor());
+    }
+
+    private static String replicaName(int index) {
+        return "replica-" + index;
+    }
+}
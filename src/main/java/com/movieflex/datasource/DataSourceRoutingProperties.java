@@ -0,0 +1,16 @@
+package com.movieflex.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties("project.datasource")
+public record DataSourceRoutingProperties(List<Replica> replicas,
+                                          @DefaultValue("PT5S") Duration maxReplicaLag,
+                                          @DefaultValue("PT5S") Duration readYourWritesWindow) {
+
+    public record Replica(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.movieflex.datasource;
+
+import java.util.function.Supplier;
+
+// Lets callers pin reads to the primary, e.g. right after the caller's own write
+public final class ReadRouting {
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(PRIMARY_FORCED.get());
+    }
+
+    public static void forcePrimary() {
+        PRIMARY_FORCED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PRIMARY_FORCED.remove();
+    }
+
+    public static <T> T onPrimary(Supplier<T> supplier) {
+        Boolean previous = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_FORCED.remove();
+            } else {
+                PRIMARY_FORCED.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.movieflex.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps a client's reads on the primary for a short window after it wrote something,
+// so it never reads a replica that hasn't caught up with its own change yet
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+    private final long windowNanos;
+    private final ConcurrentHashMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesInterceptor(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        Long lastWrite = lastWrites.get(clientKey(request));
+        if (lastWrite != null && System.nanoTime() - lastWrite < windowNanos) {
+            ReadRouting.forcePrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        ReadRouting.clear();
+        String method = request.getMethod();
+        boolean write = !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+        if (write && ex == null && response.getStatus() < 400) {
+            lastWrites.put(clientKey(request), System.nanoTime());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${project.datasource.read-your-writes-window:PT5S}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(lastWrite -> now - lastWrite >= windowNanos);
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            return authentication.getName();
+        }
+        return request.getRemoteAddr();
+    }
+}
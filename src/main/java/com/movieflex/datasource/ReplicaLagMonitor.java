@@ -0,0 +1,78 @@
+package com.movieflex.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Tracks which replicas are within the configured lag and hands them out round robin
+public class ReplicaLagMonitor {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final Map<String, DataSource> replicas;
+    private final long maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> healthyReplicas;
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, Duration maxLag) {
+        this.replicas = replicas;
+        this.maxLagSeconds = maxLag.toSeconds();
+        // optimistic until the first check so startup doesn't wait on replicas
+        this.healthyReplicas = List.copyOf(replicas.keySet());
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    // null when no replica is usable, callers then fall back to the primary
+    public String nextHealthyReplica() {
+        List<String> healthy = healthyReplicas;
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${project.datasource.lag-check-interval:PT2S}")
+    public void checkReplicas() {
+        List<String> healthy = new ArrayList<>();
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            Long lag = replicationLag(replica.getKey(), replica.getValue());
+            if (lag != null && lag <= maxLagSeconds) {
+                healthy.add(replica.getKey());
+            }
+        }
+        if (!healthy.equals(healthyReplicas)) {
+            log.info("Healthy read replicas changed from {} to {}", healthyReplicas, healthy);
+        }
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    private Long replicationLag(String name, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!status.next()) {
+                // not configured as a replica (e.g. a second local instance), nothing to lag behind
+                return 0L;
+            }
+            long lag = status.getLong("Seconds_Behind_Source");
+            // NULL means the replication threads aren't running
+            return status.wasNull() ? null : lag;
+        } catch (SQLException e) {
+            log.warn("Could not check replication lag of {}: {}", name, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.movieflex.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Read-only transactions go to a healthy replica, everything else to the primary
+public class RoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    public RoutingDataSource(ReplicaLagMonitor replicaLagMonitor) {
+        this.replicaLagMonitor = replicaLagMonitor;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadRouting.isPrimaryForced()) {
+            return PRIMARY;
+        }
+        String replica = replicaLagMonitor.nextHealthyReplica();
+        return replica != null ? replica : PRIMARY;
+    }
+}
@@ -1,5 +1,6 @@
 package com.movieflex.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -9,6 +10,8 @@ import java.util.Set;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+// fields left out of a sparse fieldset are omitted rather than sent as null
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class MovieDto {
     private Integer movieId;
 
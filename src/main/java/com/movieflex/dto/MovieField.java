@@ -0,0 +1,48 @@
+package com.movieflex.dto;
+
+import com.movieflex.exceptions.InvalidRequestException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum MovieField {
+    MOVIE_ID("movieId"),
+    TITLE("title"),
+    DIRECTOR("director"),
+    STUDIO("studio"),
+    MOVIE_CAST("movieCast"),
+    RELEASE_YEAR("releaseYear"),
+    POSTER("poster"),
+    POSTER_URL("posterUrl");
+
+    private final String fieldName;
+
+    MovieField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    // parses a comma separated fields= parameter, null means all fields
+    public static Set<MovieField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<MovieField> result = EnumSet.of(MOVIE_ID);
+        for (String name : fields.split(",")) {
+            result.add(byName(name.trim()));
+        }
+        return result;
+    }
+
+    private static MovieField byName(String name) {
+        for (MovieField field : values()) {
+            if (field.fieldName.equals(name)) {
+                return field;
+            }
+        }
+        throw new InvalidRequestException("Unknown movie field : " + name);
+    }
+}
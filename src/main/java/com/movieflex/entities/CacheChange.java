@@ -0,0 +1,34 @@
+package com.movieflex.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "cache_change")
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+public class CacheChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CacheChangeType type;
+
+    @Column(nullable = false)
+    private String entityKey;
+
+    @Column(nullable = false, length = 64)
+    private String nodeId;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,7 @@
+package com.movieflex.entities;
+
+public enum CacheChangeType {
+    MOVIE,
+    USER,
+    POSTER
+}
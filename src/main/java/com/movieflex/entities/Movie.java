@@ -5,13 +5,23 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// partial updates only write the columns that changed
+@DynamicUpdate
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
+@Setter
 public class Movie {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -29,9 +39,13 @@ public class Movie {
     @NotBlank(message = "Please provide movie's studio!")
     private String studio;
 
-    @ElementCollection
-    @CollectionTable(name = "movie_cast")
-    private Set<String> movieCast;
+    @ManyToMany
+    @JoinTable(name = "movie_person",
+            joinColumns = @JoinColumn(name = "movie_id"),
+            inverseJoinColumns = @JoinColumn(name = "person_id"))
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    private Set<Person> movieCast;
 
     @Column(nullable = false)
     private Integer releaseYear;
@@ -0,0 +1,42 @@
+package com.movieflex.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.NaturalId;
+
+import java.util.Objects;
+
+// A cast member, shared by every movie they play in. Rows are only ever inserted, see PersonService.
+@Entity
+@Table(name = "person")
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+@BatchSize(size = 100)
+@NoArgsConstructor
+@Getter
+public class Person {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer personId;
+
+    @NaturalId
+    @Column(nullable = false)
+    private String name;
+
+    // by id through the getter, so a proxy compares equal to the loaded person without being initialized
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Person other && getPersonId() != null && getPersonId().equals(other.getPersonId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getPersonId());
+    }
+}
@@ -0,0 +1,5 @@
+package com.movieflex.entities;
+
+public enum PosterJobType {
+    DELETE
+}
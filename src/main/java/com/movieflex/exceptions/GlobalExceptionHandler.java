@@ -1,12 +1,23 @@
 package com.movieflex.exceptions;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.io.FileNotFoundException;
+
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    @Value("${admission.retry-after-seconds:1}")
+    private String retryAfterSeconds;
+
+    @Value("${project.catalog-snapshot.retry-after-seconds:30}")
+    private String snapshotRetryAfterSeconds;
+
     @ExceptionHandler(MovieNoteFoundException.class)
     public ProblemDetail handleMovieNotFoundExceotion(MovieNoteFoundException ex){
         return  ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
@@ -21,4 +32,31 @@ public class GlobalExceptionHandler {
     public ProblemDetail handleEmptyFileException(EmptyFileException ex){
         return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
     }
+
+    // raised by both poster storage backends for unknown file names
+    @ExceptionHandler(FileNotFoundException.class)
+    public ProblemDetail handleFileNotFoundException(FileNotFoundException ex){
+        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, "File not found : " + ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ProblemDetail handleInvalidRequestException(InvalidRequestException ex){
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    // a coalesced load took longer than the waiters are willing to wait, the same answer as a shed request
+    @ExceptionHandler(LoadTimeoutException.class)
+    public ResponseEntity<ProblemDetail> handleLoadTimeoutException(LoadTimeoutException ex){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()));
+    }
+
+    // the first catalog snapshot of a fresh node is still being built
+    @ExceptionHandler(SnapshotUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleSnapshotUnavailableException(SnapshotUnavailableException ex){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, snapshotRetryAfterSeconds)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()));
+    }
 }
@@ -0,0 +1,7 @@
+package com.movieflex.exceptions;
+
+public class LoadTimeoutException extends RuntimeException {
+    public LoadTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.movieflex.exceptions;
+
+public class SnapshotUnavailableException extends RuntimeException {
+    public SnapshotUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,103 @@
+package com.movieflex.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Bounded multi-producer, single-consumer ring of preallocated slots. Request threads claim a slot with
+// one CAS and copy the fields in, the writer thread reads them out; nothing is allocated per event and
+// no thread ever takes a lock. Each slot's sequence says whose turn it is: equal to the claim position
+// when free, one past it once published, and a lap ahead again once the writer has consumed it.
+public class AccessLogBuffer {
+    public enum OverflowPolicy {
+        // lose the event and count it, the request never waits for the log
+        DROP,
+        // wait for the writer to make room, nothing is lost but a stalled disk slows requests down
+        BLOCK
+    }
+
+    static final class Slot {
+        volatile long sequence;
+        long timestamp;
+        String method;
+        String path;
+        int status;
+        long latencyMicros;
+        long bytes;
+        int userId;
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong claimed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    // only touched by the writer thread
+    private long consumed;
+
+    public AccessLogBuffer(int capacity, OverflowPolicy overflowPolicy) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new Slot[size];
+        this.mask = size - 1;
+        this.overflowPolicy = overflowPolicy;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            slots[i].sequence = i;
+        }
+    }
+
+    // userId is -1 for anonymous requests
+    public boolean offer(long timestamp, String method, String path, int status, long latencyMicros, long bytes,
+                         int userId) {
+        Slot slot;
+        long position;
+        while (true) {
+            position = claimed.get();
+            slot = slots[(int) position & mask];
+            long lag = slot.sequence - position;
+            if (lag == 0) {
+                if (claimed.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (lag < 0) {
+                // the writer is a whole lap behind
+                if (overflowPolicy == OverflowPolicy.DROP) {
+                    dropped.increment();
+                    return false;
+                }
+                LockSupport.parkNanos(50_000);
+            }
+            // lag > 0: another producer took this position, try the next one
+        }
+        slot.timestamp = timestamp;
+        slot.method = method;
+        slot.path = path;
+        slot.status = status;
+        slot.latencyMicros = latencyMicros;
+        slot.bytes = bytes;
+        slot.userId = userId;
+        slot.sequence = position + 1;
+        return true;
+    }
+
+    // the next published slot, or null when the writer has caught up. Must be released before polling again.
+    Slot poll() {
+        Slot slot = slots[(int) consumed & mask];
+        return slot.sequence == consumed + 1 ? slot : null;
+    }
+
+    void release(Slot slot) {
+        slot.method = null;
+        slot.path = null;
+        slot.sequence = consumed + slots.length;
+        consumed++;
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
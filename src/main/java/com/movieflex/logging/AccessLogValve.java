@@ -0,0 +1,49 @@
+package com.movieflex.logging;
+
+import org.apache.catalina.AccessLog;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.ValveBase;
+
+import jakarta.servlet.ServletException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Like ResponseFormatMetricsValve it is called once the response is complete, so it covers every request
+// including the ones rejected by security or admission, and the byte count is what went over the wire.
+// It only copies the fields into the ring buffer, the encoding and I/O happen on the writer thread.
+public class AccessLogValve extends ValveBase implements AccessLog {
+    // set by AuthFilterService once the JWT is verified
+    public static final String USER_ID_ATTRIBUTE = AccessLogValve.class.getName() + ".userId";
+
+    private final AccessLogBuffer buffer;
+    private boolean requestAttributesEnabled;
+
+    public AccessLogValve(AccessLogBuffer buffer) {
+        super(true);
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void invoke(Request request, Response response) throws IOException, ServletException {
+        getNext().invoke(request, response);
+    }
+
+    @Override
+    public void log(Request request, Response response, long time) {
+        int userId = request.getAttribute(USER_ID_ATTRIBUTE) instanceof Integer id ? id : -1;
+        buffer.offer(System.currentTimeMillis(), request.getMethod(), request.getRequestURI(), response.getStatus(),
+                TimeUnit.NANOSECONDS.toMicros(time), response.getBytesWritten(false), userId);
+    }
+
+    @Override
+    public void setRequestAttributesEnabled(boolean requestAttributesEnabled) {
+        this.requestAttributesEnabled = requestAttributesEnabled;
+    }
+
+    @Override
+    public boolean getRequestAttributesEnabled() {
+        return requestAttributesEnabled;
+    }
+}
@@ -0,0 +1,217 @@
+package com.movieflex.logging;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Drains the access log ring on its own thread and writes one JSON object per line. Numbers and strings
+// are encoded straight into a reused buffer, so steady-state logging allocates nothing on either side.
+@Component
+@ConditionalOnProperty(name = "project.access-log.enabled", havingValue = "true", matchIfMissing = true)
+public class AccessLogWriter {
+    private static final Logger log = LoggerFactory.getLogger(AccessLogWriter.class);
+
+    private static final byte[] TS = ascii("{\"ts\":");
+    private static final byte[] METHOD = ascii(",\"method\":\"");
+    private static final byte[] PATH = ascii("\",\"path\":\"");
+    private static final byte[] STATUS = ascii("\",\"status\":");
+    private static final byte[] LATENCY = ascii(",\"latencyMicros\":");
+    private static final byte[] BYTES = ascii(",\"bytes\":");
+    private static final byte[] USER = ascii(",\"userId\":");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] END = ascii("}\n");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+    // longer paths are cut, so one event always fits the buffer
+    private static final int MAX_PATH_CHARS = 2048;
+    private static final int MAX_EVENT_BYTES = 256 + MAX_PATH_CHARS * 6;
+
+    private final AccessLogBuffer buffer;
+    private final WritableByteChannel channel;
+    // stdout stays open for everything else that writes to it
+    private final boolean closeChannel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(64 * 1024);
+    private final long idleParkNanos;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private long reportedDrops;
+    private long lastDropReport = System.nanoTime();
+
+    public AccessLogWriter(@Value("${project.access-log.file:}") String file,
+                           @Value("${project.access-log.buffer-size:8192}") int bufferSize,
+                           @Value("${project.access-log.overflow-policy:drop}") AccessLogBuffer.OverflowPolicy overflowPolicy,
+                           @Value("${project.access-log.idle-flush-interval:PT0.05S}") Duration idleFlushInterval) throws IOException {
+        this.buffer = new AccessLogBuffer(bufferSize, overflowPolicy);
+        this.channel = open(file);
+        this.closeChannel = !file.isBlank();
+        this.idleParkNanos = idleFlushInterval.toNanos();
+        this.thread = new Thread(this::drain, "access-log-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static WritableByteChannel open(String file) throws IOException {
+        if (file.isBlank()) {
+            return new FileOutputStream(FileDescriptor.out).getChannel();
+        }
+        Path path = Path.of(file);
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        return Files.newByteChannel(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    public AccessLogBuffer buffer() {
+        return buffer;
+    }
+
+    private void drain() {
+        while (running) {
+            if (!drainAvailable()) {
+                flush();
+                reportDrops();
+                LockSupport.parkNanos(idleParkNanos);
+            }
+        }
+        drainAvailable();
+        flush();
+    }
+
+    // true if anything was read
+    private boolean drainAvailable() {
+        boolean any = false;
+        AccessLogBuffer.Slot slot;
+        while ((slot = buffer.poll()) != null) {
+            if (out.remaining() < MAX_EVENT_BYTES) {
+                flush();
+            }
+            encode(slot);
+            buffer.release(slot);
+            any = true;
+        }
+        return any;
+    }
+
+    private void encode(AccessLogBuffer.Slot slot) {
+        out.put(TS);
+        putLong(slot.timestamp);
+        out.put(METHOD);
+        putString(slot.method);
+        out.put(PATH);
+        putString(slot.path);
+        out.put(STATUS);
+        putLong(slot.status);
+        out.put(LATENCY);
+        putLong(slot.latencyMicros);
+        out.put(BYTES);
+        putLong(slot.bytes);
+        out.put(USER);
+        if (slot.userId < 0) {
+            out.put(NULL);
+        } else {
+            putLong(slot.userId);
+        }
+        out.put(END);
+    }
+
+    private void putLong(long value) {
+        if (value < 0) {
+            out.put((byte) '-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.put((byte) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    // JSON string contents as UTF-8, escaping quotes, backslashes and control characters
+    private void putString(String value) {
+        if (value == null) {
+            return;
+        }
+        int length = Math.min(value.length(), MAX_PATH_CHARS);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.put((byte) '\\').put((byte) c);
+            } else if (c < 0x20) {
+                out.put((byte) '\\').put((byte) 'u').put((byte) '0').put((byte) '0')
+                        .put(HEX[c >> 4]).put(HEX[c & 0xf]);
+            } else if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xc0 | c >> 6)).put((byte) (0x80 | c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xf0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3f))
+                        .put((byte) (0x80 | codePoint >> 6 & 0x3f)).put((byte) (0x80 | codePoint & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xe0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3f)).put((byte) (0x80 | c & 0x3f));
+            }
+        }
+    }
+
+    private void flush() {
+        if (out.position() == 0) {
+            return;
+        }
+        out.flip();
+        try {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        } catch (IOException e) {
+            // a full disk must not take the writer down, the events in this batch are lost
+            log.warn("Could not write the access log: {}", e.getMessage());
+        } finally {
+            out.clear();
+        }
+    }
+
+    private void reportDrops() {
+        long now = System.nanoTime();
+        if (now - lastDropReport < TimeUnit.MINUTES.toNanos(1)) {
+            return;
+        }
+        lastDropReport = now;
+        long dropped = buffer.dropped();
+        if (dropped > reportedDrops) {
+            log.warn("Dropped {} access log events in the last minute, the writer can't keep up", dropped - reportedDrops);
+            reportedDrops = dropped;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+        if (closeChannel) {
+            channel.close();
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
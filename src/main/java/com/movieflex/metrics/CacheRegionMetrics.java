@@ -0,0 +1,43 @@
+package com.movieflex.metrics;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+// Hit/miss counters of the Hibernate second-level cache regions and the query cache
+@Component
+public class CacheRegionMetrics {
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheRegionMetrics(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public Map<String, RegionSnapshot> snapshot() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, RegionSnapshot> snapshot = new TreeMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                // JCache regions can't count their entries and report Long.MIN_VALUE, shown as -1
+                snapshot.put(regionName, new RegionSnapshot(region.getHitCount(), region.getMissCount(),
+                        region.getPutCount(), Math.max(-1, region.getElementCountInMemory())));
+            }
+        }
+        snapshot.put("query-cache", new RegionSnapshot(statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount(), -1));
+        return snapshot;
+    }
+
+    public void reset() {
+        entityManagerFactory.unwrap(SessionFactory.class).getStatistics().clear();
+    }
+
+    public record RegionSnapshot(long hits, long misses, long puts, long elementsInMemory) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.movieflex.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bytes on the wire and request CPU time per response content type and content encoding
+@Component
+public class ResponseFormatMetrics {
+    private final ConcurrentHashMap<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public void record(String contentType, String contentEncoding, long bytes, long cpuNanos) {
+        String format = (contentType == null ? "none" : contentType) + ";" + (contentEncoding == null ? "identity" : contentEncoding);
+        Stats formatStats = stats.computeIfAbsent(format, key -> new Stats());
+        formatStats.responses.increment();
+        formatStats.bytes.add(bytes);
+        formatStats.cpuNanos.add(cpuNanos);
+    }
+
+    public Map<String, FormatSnapshot> snapshot() {
+        Map<String, FormatSnapshot> snapshot = new TreeMap<>();
+        stats.forEach((format, formatStats) -> {
+            long responses = formatStats.responses.sum();
+            long bytes = formatStats.bytes.sum();
+            long cpuNanos = formatStats.cpuNanos.sum();
+            snapshot.put(format, new FormatSnapshot(responses, bytes,
+                    responses == 0 ? 0 : bytes / responses,
+                    responses == 0 ? 0 : cpuNanos / responses / 1000));
+        });
+        return snapshot;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    public record FormatSnapshot(long responses, long bytesOnWire, long avgBytes, long avgCpuMicros) {
+    }
+
+    private static class Stats {
+        private final LongAdder responses = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+    }
+}
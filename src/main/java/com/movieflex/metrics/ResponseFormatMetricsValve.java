@@ -0,0 +1,60 @@
+package com.movieflex.metrics;
+
+import jakarta.servlet.ServletException;
+import org.apache.catalina.AccessLog;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.ValveBase;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// Runs as a Tomcat access log so it sees the response after the connector has compressed and
+// flushed it: getBytesWritten is then the real size on the wire, not the serialized body size
+public class ResponseFormatMetricsValve extends ValveBase implements AccessLog {
+    private static final String CPU_START_ATTRIBUTE = ResponseFormatMetricsValve.class.getName() + ".cpuStart";
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final ResponseFormatMetrics metrics;
+    private boolean requestAttributesEnabled;
+
+    public ResponseFormatMetricsValve(ResponseFormatMetrics metrics) {
+        super(true);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void invoke(Request request, Response response) throws IOException, ServletException {
+        request.setAttribute(CPU_START_ATTRIBUTE, THREADS.getCurrentThreadCpuTime());
+        getNext().invoke(request, response);
+    }
+
+    @Override
+    public void log(Request request, Response response, long time) {
+        Object cpuStart = request.getAttribute(CPU_START_ATTRIBUTE);
+        // async requests finish on another thread, their CPU time can't be attributed this way
+        long cpuNanos = cpuStart instanceof Long start && !request.isAsync()
+                ? Math.max(0, THREADS.getCurrentThreadCpuTime() - start) : 0;
+        String contentType = response.getContentType();
+        if (contentType != null) {
+            MimeType mimeType = MimeTypeUtils.parseMimeType(contentType);
+            contentType = mimeType.getType() + "/" + mimeType.getSubtype();
+        }
+        metrics.record(contentType, response.getHeader(HttpHeaders.CONTENT_ENCODING),
+                response.getBytesWritten(false), cpuNanos);
+    }
+
+    @Override
+    public void setRequestAttributesEnabled(boolean requestAttributesEnabled) {
+        this.requestAttributesEnabled = requestAttributesEnabled;
+    }
+
+    @Override
+    public boolean getRequestAttributesEnabled() {
+        return requestAttributesEnabled;
+    }
+}
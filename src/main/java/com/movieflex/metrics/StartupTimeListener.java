@@ -0,0 +1,21 @@
+package com.movieflex.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+// Time from JVM start to ready, which unlike Boot's "Started in" line includes class loading before main
+@Component
+public class StartupTimeListener {
+    private static final Logger log = LoggerFactory.getLogger(StartupTimeListener.class);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        log.info("Ready to serve requests {} ms after JVM start", sinceJvmStart);
+    }
+}
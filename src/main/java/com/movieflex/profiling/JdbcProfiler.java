@@ -0,0 +1,162 @@
+package com.movieflex.profiling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Aggregates per-statement timings, flags statements repeated within one request (N+1)
+// and hands slow statements to a background logger so the calling thread never blocks on I/O
+@Component
+public class JdbcProfiler {
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("com.movieflex.profiling.SlowQueryLog");
+    private static final String OTHER_STATEMENTS = "<other statements>";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final ConcurrentHashMap<String, StatementStats> stats = new ConcurrentHashMap<>();
+    private final ThreadLocal<Map<String, Integer>> requestCounts = new ThreadLocal<>();
+    private final ThreadPoolExecutor slowQueryWriter;
+    private final long slowQueryThresholdNanos;
+    private final int nPlusOneThreshold;
+    private final int maxStatements;
+
+    public JdbcProfiler(@Value("${project.jdbc-profiler.slow-query-threshold:PT0.2S}") Duration slowQueryThreshold,
+                        @Value("${project.jdbc-profiler.n-plus-one-threshold:5}") int nPlusOneThreshold,
+                        @Value("${project.jdbc-profiler.max-statements:1000}") int maxStatements) {
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.maxStatements = maxStatements;
+        // a full queue drops slow query log lines instead of stalling the statement that produced them
+        this.slowQueryWriter = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1000), runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-log");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public void beginRequest() {
+        requestCounts.set(new HashMap<>());
+    }
+
+    public void endRequest(String request) {
+        Map<String, Integer> counts = requestCounts.get();
+        requestCounts.remove();
+        if (counts == null) {
+            return;
+        }
+        counts.forEach((sql, count) -> {
+            if (count >= nPlusOneThreshold) {
+                StatementStats statementStats = statsFor(sql);
+                statementStats.nPlusOneRequests.increment();
+                String callSite = statementStats.callSite;
+                slowQueryWriter.execute(() -> slowQueryLog.warn("Possible N+1: statement executed {} times in {} from {}: {}",
+                        count, request, callSite, sql));
+            }
+        });
+    }
+
+    public void recordExecution(String sql, long elapsedNanos, long rows) {
+        StatementStats statementStats = statsFor(sql);
+        statementStats.executions.increment();
+        statementStats.totalNanos.add(elapsedNanos);
+        statementStats.maxNanos.accumulate(elapsedNanos);
+        if (rows > 0) {
+            statementStats.rows.add(rows);
+        }
+
+        boolean repeated = false;
+        Map<String, Integer> counts = requestCounts.get();
+        if (counts != null) {
+            repeated = counts.merge(sql, 1, Integer::sum) == nPlusOneThreshold;
+        }
+        boolean slow = elapsedNanos >= slowQueryThresholdNanos;
+        // walking the stack is only worth it for statements that will be reported
+        if (slow || repeated || statementStats.callSite == null) {
+            statementStats.callSite = callSite();
+        }
+        if (slow) {
+            String callSite = statementStats.callSite;
+            slowQueryWriter.execute(() -> slowQueryLog.warn("Slow statement took {} ms from {}: {}",
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), callSite, sql));
+        }
+    }
+
+    public void recordRows(String sql, long rows) {
+        statsFor(sql).rows.add(rows);
+    }
+
+    public List<StatementSnapshot> snapshot() {
+        List<StatementSnapshot> snapshot = new ArrayList<>();
+        stats.forEach((sql, statementStats) -> {
+            long executions = statementStats.executions.sum();
+            long totalNanos = statementStats.totalNanos.sum();
+            snapshot.add(new StatementSnapshot(sql, executions,
+                    TimeUnit.NANOSECONDS.toMillis(totalNanos),
+                    executions == 0 ? 0 : totalNanos / executions / 1000,
+                    statementStats.maxNanos.get() / 1000,
+                    statementStats.rows.sum(),
+                    statementStats.nPlusOneRequests.sum(),
+                    statementStats.callSite));
+        });
+        snapshot.sort(Comparator.comparingLong(StatementSnapshot::totalMillis).reversed());
+        return snapshot;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private StatementStats statsFor(String sql) {
+        StatementStats statementStats = stats.get(sql);
+        if (statementStats != null) {
+            return statementStats;
+        }
+        // unparameterized SQL can produce endless distinct keys, cap what we keep
+        String key = stats.size() < maxStatements ? sql : OTHER_STATEMENTS;
+        return stats.computeIfAbsent(key, k -> new StatementStats());
+    }
+
+    private static String callSite() {
+        Optional<StackWalker.StackFrame> frame = STACK_WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith("com.movieflex.")
+                        && !f.getClassName().startsWith("com.movieflex.profiling.")
+                        && !f.getClassName().contains("$$"))
+                .findFirst());
+        return frame.map(f -> f.getClassName() + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("unknown");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        slowQueryWriter.shutdown();
+    }
+
+    public record StatementSnapshot(String sql, long executions, long totalMillis, long avgMicros,
+                                    long maxMicros, long rows, long nPlusOneRequests, String callSite) {
+    }
+
+    private static class StatementStats {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder nPlusOneRequests = new LongAdder();
+        private volatile String callSite;
+    }
+}
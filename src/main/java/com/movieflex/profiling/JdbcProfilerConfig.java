@@ -0,0 +1,28 @@
+package com.movieflex.profiling;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(value = "project.jdbc-profiler.enabled", havingValue = "true", matchIfMissing = true)
+public class JdbcProfilerConfig {
+
+    // static so the post processor is registered before the datasource it wraps is created
+    @Bean
+    public static BeanPostProcessor profilingDataSourcePostProcessor(ObjectProvider<JdbcProfiler> jdbcProfiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return new ProfilingDataSource(dataSource, jdbcProfiler.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
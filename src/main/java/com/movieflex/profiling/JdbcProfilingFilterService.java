@@ -0,0 +1,35 @@
+package com.movieflex.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Scopes the per-request statement counts used for N+1 detection
+@Service
+@ConditionalOnProperty(value = "project.jdbc-profiler.enabled", havingValue = "true", matchIfMissing = true)
+public class JdbcProfilingFilterService extends OncePerRequestFilter {
+    private final JdbcProfiler jdbcProfiler;
+
+    public JdbcProfilingFilterService(JdbcProfiler jdbcProfiler) {
+        this.jdbcProfiler = jdbcProfiler;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        jdbcProfiler.beginRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            jdbcProfiler.endRequest(request.getMethod() + " " + request.getRequestURI());
+        }
+    }
+}
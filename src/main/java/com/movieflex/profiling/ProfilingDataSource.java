@@ -0,0 +1,131 @@
+package com.movieflex.profiling;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Wraps connections, statements and result sets in JDK proxies that report to the JdbcProfiler
+public class ProfilingDataSource extends DelegatingDataSource {
+    private final JdbcProfiler profiler;
+
+    public ProfilingDataSource(DataSource targetDataSource, JdbcProfiler profiler) {
+        super(targetDataSource);
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return proxy(PreparedStatement.class, result, new StatementHandler((Statement) result, (String) args[0]));
+                case "prepareCall":
+                    return proxy(CallableStatement.class, result, new StatementHandler((Statement) result, (String) args[0]));
+                case "createStatement":
+                    return proxy(Statement.class, result, new StatementHandler((Statement) result, null));
+                default:
+                    return result;
+            }
+        });
+    }
+
+    private class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String preparedSql;
+        private String lastSql;
+
+        private StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                Object result = ProfilingDataSource.invoke(statement, method, args);
+                if ("getResultSet".equals(name) && result instanceof ResultSet resultSet && lastSql != null) {
+                    return wrapResultSet(resultSet, lastSql);
+                }
+                return result;
+            }
+            String sql = preparedSql != null ? preparedSql
+                    : (args != null && args.length > 0 && args[0] instanceof String s ? s : "<batch>");
+            lastSql = sql;
+            long start = System.nanoTime();
+            Object result = ProfilingDataSource.invoke(statement, method, args);
+            long elapsed = System.nanoTime() - start;
+            profiler.recordExecution(sql, elapsed, updatedRows(result));
+            if (result instanceof ResultSet resultSet) {
+                return wrapResultSet(resultSet, sql);
+            }
+            return result;
+        }
+    }
+
+    // rows returned by a query are counted as the caller iterates and reported on close
+    private ResultSet wrapResultSet(ResultSet resultSet, String sql) {
+        long[] rows = new long[1];
+        boolean[] reported = new boolean[1];
+        return proxy(ResultSet.class, resultSet, (proxy, method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                rows[0]++;
+            } else if ("close".equals(method.getName()) && !reported[0]) {
+                reported[0] = true;
+                profiler.recordRows(sql, rows[0]);
+            }
+            return result;
+        });
+    }
+
+    private static long updatedRows(Object result) {
+        if (result instanceof Integer count) {
+            return Math.max(count, 0);
+        }
+        if (result instanceof Long count) {
+            return Math.max(count, 0);
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return 0;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,28 @@
+package com.movieflex.repositories;
+
+import com.movieflex.entities.CacheChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CacheChangeRepository extends JpaRepository<CacheChange, Long> {
+    List<CacheChange> findBySeqGreaterThanOrderBySeq(long seq, Pageable pageable);
+
+    List<CacheChange> findBySeqIn(Collection<Long> seqs);
+
+    @Query("select coalesce(max(c.seq), 0) from CacheChange c")
+    long findMaxSeq();
+
+    @Transactional
+    @Modifying
+    @Query("delete from CacheChange c where c.createdAt < :cutoff")
+    int deleteCreatedBefore(Instant cutoff);
+}
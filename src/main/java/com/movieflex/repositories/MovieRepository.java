@@ -1,9 +1,29 @@
 package com.movieflex.repositories;
 
 import com.movieflex.entities.Movie;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 @Repository
-public interface MovieRepository extends JpaRepository<Movie, Integer> {
+public interface MovieRepository extends JpaRepository<Movie, Integer>, MovieRepositoryCustom {
+    @Query("select m.poster from Movie m where m.poster in :posters")
+    Set<String> findPostersIn(@Param("posters") Collection<String> posters);
+
+    // also locks the index gaps, so a movie inserted with one of these posters waits for the caller to commit
+    @Query(value = "select poster from movie where poster in (:posters) for update", nativeQuery = true)
+    Set<String> lockPostersIn(@Param("posters") Collection<String> posters);
+
+    // keyset paging for jobs that walk the whole catalog
+    @Query("select m.movieId from Movie m where m.movieId > :after order by m.movieId")
+    List<Integer> findIdsAfter(@Param("after") Integer after, Pageable pageable);
+
+    @Query("select m.poster, m.movieId from Movie m where m.poster in :posters")
+    List<Object[]> findIdsByPosterIn(@Param("posters") Collection<String> posters);
 }
@@ -0,0 +1,22 @@
+package com.movieflex.repositories;
+
+import com.movieflex.dto.MovieDto;
+import com.movieflex.dto.MovieField;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Projection queries that only select the requested columns, the posterUrl is left for the service
+public interface MovieRepositoryCustom {
+    Optional<MovieDto> findProjectedById(Integer movieId, Set<MovieField> fields);
+
+    List<MovieDto> findAllProjected(Set<MovieField> fields);
+
+    List<MovieDto> findAllProjectedByIds(Collection<Integer> movieIds, Set<MovieField> fields);
+
+    Page<MovieDto> findAllProjected(Set<MovieField> fields, Pageable pageable);
+}
@@ -0,0 +1,141 @@
+package com.movieflex.repositories;
+
+import com.movieflex.dto.MovieDto;
+import com.movieflex.dto.MovieField;
+import com.movieflex.entities.Movie;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class MovieRepositoryImpl implements MovieRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<MovieDto> findProjectedById(Integer movieId, Set<MovieField> fields) {
+        List<MovieDto> movies = findProjected(fields, List.of(movieId), Pageable.unpaged());
+        return movies.stream().findFirst();
+    }
+
+    @Override
+    public List<MovieDto> findAllProjectedByIds(Collection<Integer> movieIds, Set<MovieField> fields) {
+        if (movieIds.isEmpty()) {
+            return List.of();
+        }
+        return findProjected(fields, movieIds, Pageable.unpaged());
+    }
+
+    @Override
+    public List<MovieDto> findAllProjected(Set<MovieField> fields) {
+        return findProjected(fields, null, Pageable.unpaged());
+    }
+
+    @Override
+    public Page<MovieDto> findAllProjected(Set<MovieField> fields, Pageable pageable) {
+        List<MovieDto> content = findProjected(fields, null, pageable);
+        // the count query is skipped when the page alone tells us the total
+        return PageableExecutionUtils.getPage(content, pageable, () -> entityManager
+                .createQuery("select count(m) from Movie m", Long.class)
+                .getSingleResult());
+    }
+
+    private List<MovieDto> findProjected(Set<MovieField> fields, Collection<Integer> movieIds, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Movie> movie = query.from(Movie.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String attribute : columnsFor(fields)) {
+            selections.add(movie.get(attribute).alias(attribute));
+        }
+        query.multiselect(selections);
+        if (movieIds != null) {
+            query.where(movieIds.size() == 1 ? cb.equal(movie.get("movieId"), movieIds.iterator().next())
+                    : movie.get("movieId").in(movieIds));
+        }
+        if (pageable.getSort().isSorted()) {
+            List<Order> orders = new ArrayList<>();
+            for (Sort.Order order : pageable.getSort()) {
+                orders.add(order.isAscending() ? cb.asc(movie.get(order.getProperty()))
+                        : cb.desc(movie.get(order.getProperty())));
+            }
+            query.orderBy(orders);
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        Map<Integer, MovieDto> movies = new HashMap<>();
+        List<MovieDto> result = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            MovieDto dto = toMovieDto(tuple, fields);
+            movies.put(dto.getMovieId(), dto);
+            result.add(dto);
+        }
+        // movie_person and person are only touched when the cast was asked for
+        if (fields.contains(MovieField.MOVIE_CAST) && !movies.isEmpty()) {
+            loadCasts(movies);
+        }
+        return result;
+    }
+
+    private void loadCasts(Map<Integer, MovieDto> movies) {
+        for (MovieDto movie : movies.values()) {
+            movie.setMovieCast(new HashSet<>());
+        }
+        List<Object[]> rows = entityManager.createQuery(
+                        "select m.movieId, p.name from Movie m join m.movieCast p where m.movieId in :ids", Object[].class)
+                .setParameter("ids", movies.keySet())
+                .getResultList();
+        for (Object[] row : rows) {
+            movies.get((Integer) row[0]).getMovieCast().add((String) row[1]);
+        }
+    }
+
+    private static List<String> columnsFor(Set<MovieField> fields) {
+        List<String> columns = new ArrayList<>();
+        columns.add("movieId");
+        if (fields.contains(MovieField.TITLE)) columns.add("title");
+        if (fields.contains(MovieField.DIRECTOR)) columns.add("director");
+        if (fields.contains(MovieField.STUDIO)) columns.add("studio");
+        if (fields.contains(MovieField.RELEASE_YEAR)) columns.add("releaseYear");
+        // the poster url is derived from the poster file name
+        if (fields.contains(MovieField.POSTER) || fields.contains(MovieField.POSTER_URL)) columns.add("poster");
+        return columns;
+    }
+
+    private static MovieDto toMovieDto(Tuple tuple, Set<MovieField> fields) {
+        MovieDto dto = new MovieDto();
+        dto.setMovieId(tuple.get("movieId", Integer.class));
+        if (fields.contains(MovieField.TITLE)) dto.setTitle(tuple.get("title", String.class));
+        if (fields.contains(MovieField.DIRECTOR)) dto.setDirector(tuple.get("director", String.class));
+        if (fields.contains(MovieField.STUDIO)) dto.setStudio(tuple.get("studio", String.class));
+        if (fields.contains(MovieField.RELEASE_YEAR)) dto.setReleaseYear(tuple.get("releaseYear", Integer.class));
+        if (fields.contains(MovieField.POSTER) || fields.contains(MovieField.POSTER_URL)) {
+            dto.setPoster(tuple.get("poster", String.class));
+        }
+        return dto;
+    }
+}
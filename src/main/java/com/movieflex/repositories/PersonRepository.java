@@ -0,0 +1,38 @@
+package com.movieflex.repositories;
+
+import com.movieflex.entities.Person;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PersonRepository extends JpaRepository<Person, Integer> {
+    // a locking read sees people committed by concurrent writers after this transaction's snapshot
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    List<Person> findByNameIn(Collection<String> names);
+
+    // a concurrent insert of the same name is skipped instead of failing the caller's transaction
+    @Modifying
+    @Query(value = "insert ignore into person (name) values (:name)", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name);
+
+    @Query("select p.personId, p.name from Person p")
+    List<Object[]> findAllNames();
+
+    @Query("select m.movieId, p.personId, p.name from Movie m join m.movieCast p where m.movieId in :movieIds")
+    List<Object[]> findCastOf(@Param("movieIds") Collection<Integer> movieIds);
+
+    // used until the cast index is built
+    @Query(value = "select m.movieId from Movie m join m.movieCast p where p.name = :name order by m.movieId",
+            countQuery = "select count(m) from Movie m join m.movieCast p where p.name = :name")
+    Page<Integer> findMovieIdsByName(@Param("name") String name, Pageable pageable);
+}
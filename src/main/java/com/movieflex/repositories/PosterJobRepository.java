@@ -0,0 +1,38 @@
+package com.movieflex.repositories;
+
+import com.movieflex.entities.PosterJob;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public interface PosterJobRepository extends JpaRepository<PosterJob, Long> {
+    // FOR UPDATE SKIP LOCKED: the jobs stay claimed until the caller's transaction ends, and other nodes
+    // polling at the same time take the next ones instead of waiting or running the same jobs
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<PosterJob> findByAttemptsLessThanAndNextAttemptAtLessThanEqualOrderByJobId(int maxAttempts, Instant now, Pageable pageable);
+
+    // pending and exhausted jobs alike
+    @Query("select j.fileName from PosterJob j where j.fileName in :fileNames")
+    Set<String> findFileNamesIn(@Param("fileNames") Collection<String> fileNames);
+
+    // the failure of jobs that ran out of attempts is kept this long, see PosterJobService
+    @Transactional
+    @Modifying
+    @Query("delete from PosterJob j where j.attempts >= :maxAttempts and j.nextAttemptAt < :cutoff")
+    int deleteExhaustedBefore(@Param("maxAttempts") int maxAttempts, @Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,15 @@
+package com.movieflex.services;
+
+import com.movieflex.entities.CacheChangeType;
+
+import java.util.Set;
+
+// Implemented by every in-process cache that must follow writes made on this node or on other nodes
+public interface CacheInvalidationListener {
+
+    // local is true for changes committed by this node, which the caches usually already reflect
+    void invalidate(CacheChangeType type, Set<String> keys, boolean local);
+
+    // called when events may have been missed, e.g. after the poller was down longer than the log retention
+    void invalidateAll();
+}
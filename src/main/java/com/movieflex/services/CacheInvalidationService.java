@@ -0,0 +1,174 @@
+package com.movieflex.services;
+
+import com.movieflex.datasource.ReadRouting;
+import com.movieflex.entities.CacheChange;
+import com.movieflex.entities.CacheChangeType;
+import com.movieflex.repositories.CacheChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Cross-node cache invalidation without a broker: writers append to the cache_change table in their own
+// transaction and every node tails it by sequence number. Staleness is bounded by the poll interval,
+// plus the gap timeout for events whose transactions commit out of sequence order.
+@Service
+public class CacheInvalidationService {
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationService.class);
+
+    private final CacheChangeRepository cacheChangeRepository;
+    // resolved lazily, listeners are free to depend on the services that publish
+    private final ObjectProvider<CacheInvalidationListener> listeners;
+    private final String nodeId;
+
+    @Value("${project.cache-invalidation.batch-size:500}")
+    private int batchSize;
+
+    @Value("${project.cache-invalidation.gap-timeout:PT10S}")
+    private Duration gapTimeout;
+
+    @Value("${project.cache-invalidation.max-tracked-gaps:1000}")
+    private int maxTrackedGaps;
+
+    @Value("${project.cache-invalidation.retention:PT1H}")
+    private Duration retention;
+
+    // only touched by the poller, @Scheduled never runs a method concurrently with itself
+    private long lastSeq = -1;
+    private Instant lastPoll;
+    // sequence numbers skipped so far, their transactions may still commit
+    private final TreeMap<Long, Instant> gaps = new TreeMap<>();
+
+    public CacheInvalidationService(CacheChangeRepository cacheChangeRepository, ObjectProvider<CacheInvalidationListener> listeners,
+                                    @Value("${project.cache-invalidation.node-id:}") String nodeId) {
+        this.cacheChangeRepository = cacheChangeRepository;
+        this.listeners = listeners;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // joins the caller's transaction so the event commits with the change; callers without one, like the
+    // poster worker, get a transaction of their own
+    @Transactional
+    public void publish(CacheChangeType type, Object key) {
+        String entityKey = String.valueOf(key);
+        cacheChangeRepository.save(CacheChange.builder()
+                .type(type)
+                .entityKey(entityKey)
+                .nodeId(nodeId)
+                .createdAt(Instant.now())
+                .build());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(type, Set.of(entityKey), true);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${project.cache-invalidation.poll-interval:PT1S}")
+    public void poll() {
+        // the log is only meaningful on the primary, a lagging replica would hide fresh events
+        ReadRouting.onPrimary(() -> {
+            pollPrimary();
+            return null;
+        });
+    }
+
+    private void pollPrimary() {
+        Instant now = Instant.now();
+        if (lastSeq < 0) {
+            // a fresh node has empty caches, so history can be skipped
+            lastSeq = cacheChangeRepository.findMaxSeq();
+            lastPoll = now;
+            return;
+        }
+        boolean missedEvents = lastPoll.plus(retention).isBefore(now);
+
+        List<CacheChange> changes = new ArrayList<>();
+        if (!gaps.isEmpty()) {
+            for (CacheChange change : cacheChangeRepository.findBySeqIn(gaps.keySet())) {
+                gaps.remove(change.getSeq());
+                changes.add(change);
+            }
+            // rolled back transactions leave gaps that never fill
+            gaps.values().removeIf(firstSeen -> firstSeen.plus(gapTimeout).isBefore(now));
+        }
+
+        long seq = lastSeq;
+        List<CacheChange> batch;
+        do {
+            batch = cacheChangeRepository.findBySeqGreaterThanOrderBySeq(seq, PageRequest.of(0, batchSize));
+            for (CacheChange change : batch) {
+                if (change.getSeq() - seq - 1 > maxTrackedGaps - gaps.size()) {
+                    missedEvents = true;
+                } else {
+                    for (long missing = seq + 1; missing < change.getSeq(); missing++) {
+                        gaps.put(missing, now);
+                    }
+                }
+                seq = change.getSeq();
+                changes.add(change);
+            }
+        } while (batch.size() == batchSize);
+
+        if (missedEvents) {
+            log.warn("Cache change log may have been missed by node {}, evicting all caches", nodeId);
+            gaps.clear();
+            listeners.orderedStream().forEach(CacheInvalidationListener::invalidateAll);
+        } else {
+            dispatchRemote(changes);
+        }
+        lastSeq = seq;
+        lastPoll = now;
+    }
+
+    private void dispatchRemote(List<CacheChange> changes) {
+        Map<CacheChangeType, Set<String>> keysByType = new EnumMap<>(CacheChangeType.class);
+        for (CacheChange change : changes) {
+            if (!nodeId.equals(change.getNodeId())) {
+                keysByType.computeIfAbsent(change.getType(), type -> new HashSet<>()).add(change.getEntityKey());
+            }
+        }
+        keysByType.forEach((type, keys) -> dispatch(type, keys, false));
+    }
+
+    private void dispatch(CacheChangeType type, Set<String> keys, boolean local) {
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.invalidate(type, keys, local);
+            } catch (RuntimeException e) {
+                log.error("Cache invalidation listener {} failed for {} {}", listener.getClass().getSimpleName(), type, keys, e);
+            }
+        });
+    }
+
+    @Scheduled(initialDelayString = "${project.cache-invalidation.prune-interval:PT10M}",
+            fixedDelayString = "${project.cache-invalidation.prune-interval:PT10M}")
+    public void prune() {
+        int deleted = cacheChangeRepository.deleteCreatedBefore(Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.debug("Pruned {} cache change events", deleted);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.movieflex.services;
+
+import com.movieflex.services.HotKeyTracker.HotEntry;
+import com.movieflex.services.HotKeyTracker.HotPage;
+import com.movieflex.services.HotKeyTracker.HotSet;
+import com.movieflex.utlis.AppConstants;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Preloads the previous instance's hot set after startup so the first requests after a deploy hit warm
+// second-level, page and poster caches. Movies are loaded with one IN query per batch and pages in parallel,
+// posters one after another since they are large and compete for the same disk or connection pool.
+// Readiness is held (see WarmUpHealthIndicator) until enough of the hot set has been loaded.
+@Service
+public class CacheWarmUpService {
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmUpService.class);
+
+    private final HotKeyTracker hotKeyTracker;
+
+    private final MovieService movieService;
+
+    private final MoviePageCache moviePageCache;
+
+    private final FileService fileService;
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger loaded = new AtomicInteger();
+    private final AtomicLong startedAt = new AtomicLong();
+    private volatile boolean finished;
+
+    @Value("${project.warm-up.enabled:true}")
+    private boolean enabled;
+
+    @Value("${project.warm-up.parallelism:4}")
+    private int parallelism;
+
+    @Value("${project.warm-up.ready-percent:90}")
+    private int readyPercent;
+
+    // readiness is given up on waiting after this, a slow database must not keep the node out for good
+    @Value("${project.warm-up.max-duration:PT2M}")
+    private Duration maxDuration;
+
+    private ExecutorService loaders;
+
+    public CacheWarmUpService(HotKeyTracker hotKeyTracker, @Qualifier("movieServiceImpl") MovieService movieService,
+                              MoviePageCache moviePageCache, @Qualifier("posterStorage") FileService fileService) {
+        this.hotKeyTracker = hotKeyTracker;
+        this.movieService = movieService;
+        this.moviePageCache = moviePageCache;
+        this.fileService = fileService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        HotSet hotSet = hotKeyTracker.load();
+        if (!enabled || hotSet.size() == 0) {
+            finished = true;
+            return;
+        }
+        total.set(hotSet.size());
+        startedAt.set(System.nanoTime());
+        loaders = Executors.newFixedThreadPool(parallelism, r -> new Thread(r, "cache-warm-up"));
+        List<Integer> movieIds = hotSet.movies().stream().map(HotEntry::key).toList();
+        for (int from = 0; from < movieIds.size(); from += AppConstants.MAX_BATCH_SIZE) {
+            List<Integer> batch = movieIds.subList(from, Math.min(from + AppConstants.MAX_BATCH_SIZE, movieIds.size()));
+            loaders.execute(() -> load(batch.size(), () -> movieService.getMoviesByIds(batch)));
+        }
+        for (HotEntry<HotPage> entry : hotSet.pages()) {
+            loaders.execute(() -> load(1, () -> loadPage(entry.key())));
+        }
+        List<String> posters = hotSet.posters().stream().map(HotEntry::key).toList();
+        loaders.execute(() -> posters.forEach(poster -> load(1, () -> readPoster(poster))));
+        loaders.shutdown();
+        Thread.ofVirtual().name("cache-warm-up-monitor").start(() -> awaitLoaders(hotSet));
+    }
+
+    private void load(int keys, Runnable loader) {
+        try {
+            loader.run();
+        } catch (RuntimeException e) {
+            // deleted movies, removed posters or an invalid old sort column, none of it should block readiness
+            log.debug("Warm-up load failed: {}", e.getMessage());
+        } finally {
+            loaded.addAndGet(keys);
+        }
+    }
+
+    // stored in the page cache under the key CoalescingMovieService looks up, without going through it so
+    // the warm-up isn't counted as traffic in the next hot set
+    private void loadPage(HotPage page) {
+        if (page.sortBy() == null) {
+            moviePageCache.get(page.pageNumber(), page.pageSize(), null, null, page.fields(), false,
+                    () -> movieService.getAllMoviesWithPagination(page.pageNumber(), page.pageSize(), page.fields()));
+        } else {
+            String direction = MovieServiceImpl.sortDirection(page.sortDirection()).name().toLowerCase();
+            moviePageCache.get(page.pageNumber(), page.pageSize(), page.sortBy(), direction, page.fields(), false,
+                    () -> movieService.getAllMoviesWithPaginationAndSorting(page.pageNumber(), page.pageSize(),
+                            page.sortBy(), direction, page.fields()));
+        }
+    }
+
+    private void readPoster(String fileName) {
+        // reading through fills the S3 disk cache, or the page cache for local posters
+        try (InputStream in = fileService.getResourceFile(fileName)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void awaitLoaders(HotSet hotSet) {
+        try {
+            loaders.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finished = true;
+        log.info("Warmed up {} movies, {} pages and {} posters in {} ms", hotSet.movies().size(), hotSet.pages().size(),
+                hotSet.posters().size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt.get()));
+    }
+
+    public boolean isReady() {
+        if (finished || loaded.get() * 100L >= (long) total.get() * readyPercent) {
+            return true;
+        }
+        return System.nanoTime() - startedAt.get() >= maxDuration.toNanos();
+    }
+
+    public int loaded() {
+        return loaded.get();
+    }
+
+    public int total() {
+        return total.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (loaders != null) {
+            loaders.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.movieflex.services;
+
+import com.movieflex.datasource.ReadRouting;
+import com.movieflex.entities.CacheChangeType;
+import com.movieflex.exceptions.InvalidRequestException;
+import com.movieflex.repositories.MovieRepository;
+import com.movieflex.repositories.PersonRepository;
+import com.movieflex.utlis.AppConstants;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+// The person dictionary (name to person id) and, per person, the sorted ids of the movies they play in.
+// Lookups by cast member are a map get and an array slice. Built once on startup and then patched from
+// cache invalidation events like SimilarMovieIndex; until the build is done reads go to movie_person.
+@Component
+public class CastIndex implements CacheInvalidationListener {
+    private static final Logger log = LoggerFactory.getLogger(CastIndex.class);
+
+    private static final int LOAD_CHUNK = 1000;
+    private static final int[] NO_MOVIES = new int[0];
+
+    private final MovieRepository movieRepository;
+    private final PersonRepository personRepository;
+    private final TransactionTemplate readTransaction;
+    // index maintenance is serialized on this thread, the dictionary and postings are read concurrently
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(r -> new Thread(r, "cast-index"));
+
+    private final Map<String, Integer> personIds = new ConcurrentHashMap<>();
+    // posting arrays are never modified once published, a change swaps in a new array
+    private final Map<Integer, int[]> postings = new ConcurrentHashMap<>();
+    // owned by the updater thread, needed to take a movie out of the postings it used to be in
+    private final Map<Integer, int[]> castByMovie = new HashMap<>();
+    private volatile boolean ready;
+
+    public CastIndex(MovieRepository movieRepository, PersonRepository personRepository,
+                     PlatformTransactionManager transactionManager) {
+        this.movieRepository = movieRepository;
+        this.personRepository = personRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    // null when the name isn't known yet
+    public Integer getPersonId(String name) {
+        return personIds.get(name);
+    }
+
+    // called by writers once a person is interned, so the next movie with them skips the lookup
+    void putPerson(String name, Integer personId) {
+        personIds.put(name, personId);
+    }
+
+    public Page<Integer> getMovieIds(String name, int pageNumber, int pageSize) {
+        if (pageNumber < 0 || pageSize < 1 || pageSize > AppConstants.MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("pageNumber must be at least 0 and pageSize between 1 and "
+                    + AppConstants.MAX_BATCH_SIZE);
+        }
+        Pageable pageable = PageRequest.of(pageNumber, pageSize);
+        if (!ready) {
+            return readTransaction.execute(status -> personRepository.findMovieIdsByName(name, pageable));
+        }
+        Integer personId = personIds.get(name);
+        int[] movieIds = personId == null ? NO_MOVIES : postings.getOrDefault(personId, NO_MOVIES);
+        int from = (int) Math.min(pageable.getOffset(), movieIds.length);
+        int to = Math.min(from + pageSize, movieIds.length);
+        List<Integer> content = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            content.add(movieIds[i]);
+        }
+        return new PageImpl<>(content, pageable, movieIds.length);
+    }
+
+    // built off the startup thread, lookups fall back to the database until it is done
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        run(this::rebuild);
+    }
+
+    @Override
+    public void invalidate(CacheChangeType type, Set<String> keys, boolean local) {
+        if (type != CacheChangeType.MOVIE) {
+            return;
+        }
+        Set<Integer> movieIds = keys.stream().map(Integer::valueOf).collect(Collectors.toSet());
+        run(() -> update(movieIds));
+    }
+
+    @Override
+    public void invalidateAll() {
+        run(this::rebuild);
+    }
+
+    private void run(Runnable task) {
+        updater.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // the index stays as it was, the next change or rebuild brings it back in line
+                log.error("Cast index update failed", e);
+            }
+        });
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        ready = false;
+        for (Object[] row : ReadRouting.onPrimary(() -> readTransaction.execute(status -> personRepository.findAllNames()))) {
+            personIds.put((String) row[1], (Integer) row[0]);
+        }
+        castByMovie.clear();
+        Map<Integer, List<Integer>> built = new HashMap<>();
+        Integer after = 0;
+        List<Integer> ids;
+        do {
+            Integer from = after;
+            ids = readTransaction.execute(status -> movieRepository.findIdsAfter(from, PageRequest.of(0, LOAD_CHUNK)));
+            // ids come in ascending order, so every posting list is built sorted
+            Map<Integer, int[]> casts = loadCasts(ids);
+            for (Integer movieId : ids) {
+                int[] cast = casts.getOrDefault(movieId, NO_MOVIES);
+                castByMovie.put(movieId, cast);
+                for (int personId : cast) {
+                    built.computeIfAbsent(personId, id -> new ArrayList<>()).add(movieId);
+                }
+            }
+            if (!ids.isEmpty()) {
+                after = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == LOAD_CHUNK);
+
+        postings.clear();
+        built.forEach((personId, movieIds) ->
+                postings.put(personId, movieIds.stream().mapToInt(Integer::intValue).toArray()));
+        ready = true;
+        log.info("Built cast index for {} people in {} movies in {} ms", postings.size(), castByMovie.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void update(Set<Integer> movieIds) {
+        Map<Integer, int[]> current = loadCasts(movieIds);
+        for (Integer movieId : movieIds) {
+            int[] old = castByMovie.getOrDefault(movieId, NO_MOVIES);
+            int[] updated = current.getOrDefault(movieId, NO_MOVIES);
+            for (int personId : old) {
+                if (!contains(updated, personId)) {
+                    postings.computeIfPresent(personId, (id, posting) -> without(posting, movieId));
+                }
+            }
+            for (int personId : updated) {
+                if (!contains(old, personId)) {
+                    postings.merge(personId, new int[]{movieId}, (posting, added) -> with(posting, movieId));
+                }
+            }
+            if (current.containsKey(movieId)) {
+                castByMovie.put(movieId, updated);
+            } else {
+                castByMovie.remove(movieId);
+            }
+        }
+    }
+
+    // person ids by movie, movies without a cast are left out; also teaches the dictionary new names
+    private Map<Integer, int[]> loadCasts(Collection<Integer> movieIds) {
+        if (movieIds.isEmpty()) {
+            return Map.of();
+        }
+        // casts must reflect the write that triggered the update, a lagging replica would undo it
+        List<Object[]> rows = ReadRouting.onPrimary(() -> readTransaction.execute(status ->
+                personRepository.findCastOf(movieIds)));
+        Map<Integer, Set<Integer>> casts = new HashMap<>();
+        for (Object[] row : rows) {
+            casts.computeIfAbsent((Integer) row[0], id -> new HashSet<>()).add((Integer) row[1]);
+            personIds.putIfAbsent((String) row[2], (Integer) row[1]);
+        }
+        Map<Integer, int[]> result = new HashMap<>();
+        casts.forEach((movieId, cast) -> result.put(movieId, cast.stream().mapToInt(Integer::intValue).toArray()));
+        return result;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] with(int[] posting, int movieId) {
+        int index = Arrays.binarySearch(posting, movieId);
+        if (index >= 0) {
+            return posting;
+        }
+        int insertAt = -index - 1;
+        int[] result = new int[posting.length + 1];
+        System.arraycopy(posting, 0, result, 0, insertAt);
+        result[insertAt] = movieId;
+        System.arraycopy(posting, insertAt, result, insertAt + 1, posting.length - insertAt);
+        return result;
+    }
+
+    // null removes the entry, a person without movies keeps no posting
+    private static int[] without(int[] posting, int movieId) {
+        int index = Arrays.binarySearch(posting, movieId);
+        if (index < 0) {
+            return posting;
+        }
+        if (posting.length == 1) {
+            return null;
+        }
+        int[] result = new int[posting.length - 1];
+        System.arraycopy(posting, 0, result, 0, index);
+        System.arraycopy(posting, index + 1, result, index, posting.length - index - 1);
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        updater.shutdownNow();
+    }
+}
@@ -0,0 +1,368 @@
+package com.movieflex.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movieflex.datasource.ReadRouting;
+import com.movieflex.dto.MovieDto;
+import com.movieflex.dto.MovieField;
+import com.movieflex.entities.CacheChangeType;
+import com.movieflex.repositories.MovieRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.stream.Stream;
+
+// The whole catalog as gzipped NDJSON, one movie per line in id order with its poster url, for partners
+// and edge caches that pull everything at once. Built in the background: once in full on startup, then
+// by merging the movies changed since into the previous file, so a change costs a read of those movies
+// and a recompression instead of a table scan. Each version is its own file named after its digest, the
+// previous one is kept until the next build so responses already being sent from it can finish.
+@Service
+public class CatalogSnapshotService implements CacheInvalidationListener {
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private static final Set<MovieField> ALL_FIELDS = EnumSet.allOf(MovieField.class);
+    private static final String PREFIX = "catalog-";
+    private static final String SUFFIX = ".ndjson.gz";
+    // every line starts with the id, Jackson writes the fields in declaration order
+    private static final String LINE_START = "{\"movieId\":";
+    private static final int LOAD_CHUNK = 1000;
+
+    private final MovieRepository movieRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readTransaction;
+    // builds are serialized on this thread
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(r -> new Thread(r, "catalog-snapshot"));
+
+    // movies changed since the last build
+    private final Set<Integer> changed = ConcurrentHashMap.newKeySet();
+    private volatile boolean fullRebuildNeeded = true;
+    private volatile Snapshot current;
+    // owned by the builder thread
+    private Snapshot previous;
+
+    @Value("${project.catalog-snapshot.directory:catalog-snapshot}")
+    private Path directory;
+
+    @Value("${project.catalog-snapshot.compression-level:6}")
+    private int compressionLevel;
+
+    @Value("${base.url}")
+    private String baseUrl;
+
+    public record Snapshot(Path file, String etag, long length, Instant builtAt) {
+    }
+
+    public CatalogSnapshotService(MovieRepository movieRepository, ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this.movieRepository = movieRepository;
+        this.objectMapper = objectMapper;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    // null until the first snapshot exists
+    public Snapshot current() {
+        return current;
+    }
+
+    // the newest file of the previous run is served until the full build replaces it, it may lack the changes
+    // made while this node was down but is still a consistent catalog
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> list = Files.list(directory)) {
+                files = list.filter(file -> file.getFileName().toString().startsWith(PREFIX))
+                        .sorted(Comparator.comparing(CatalogSnapshotService::lastModified).reversed())
+                        .toList();
+            }
+            for (Path file : files) {
+                if (current == null && file.getFileName().toString().endsWith(SUFFIX)) {
+                    current = adopt(file);
+                } else {
+                    // older versions and temp files of an interrupted build
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not read the previous catalog snapshot from {}: {}", directory, e.getMessage());
+        }
+        builder.execute(this::build);
+    }
+
+    @Override
+    public void invalidate(CacheChangeType type, Set<String> keys, boolean local) {
+        if (type != CacheChangeType.MOVIE) {
+            return;
+        }
+        for (String key : keys) {
+            changed.add(Integer.valueOf(key));
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        fullRebuildNeeded = true;
+    }
+
+    // changes are batched up to this interval, so a burst of edits costs one recompression
+    @Scheduled(initialDelayString = "${project.catalog-snapshot.rebuild-interval:PT1M}",
+            fixedDelayString = "${project.catalog-snapshot.rebuild-interval:PT1M}")
+    public void rebuildIfChanged() {
+        if (fullRebuildNeeded || !changed.isEmpty()) {
+            builder.execute(this::build);
+        }
+    }
+
+    // package-private so tests can run a build on their own thread
+    void build() {
+        if (!fullRebuildNeeded && changed.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean full = fullRebuildNeeded || current == null;
+        // taken before reading, changes that arrive during the build go into the next one
+        fullRebuildNeeded = false;
+        Set<Integer> movieIds = new TreeSet<>();
+        for (Iterator<Integer> it = changed.iterator(); it.hasNext(); ) {
+            movieIds.add(it.next());
+            it.remove();
+        }
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, PREFIX, ".tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            int movies;
+            try (OutputStream out = gzip(new DigestOutputStream(Files.newOutputStream(temp), digest))) {
+                movies = full ? writeAll(movieIds, out) : merge(current.file(), movieIds, out);
+            }
+            String version = HexFormat.of().formatHex(digest.digest(), 0, 16);
+            Snapshot built = current != null && current.etag().equals(etag(version)) ? null : publish(temp, version);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            String outcome = built == null ? "unchanged" : built.etag();
+            if (full) {
+                log.info("Built catalog snapshot with {} movies in {} ms, {}", movies, millis, outcome);
+            } else {
+                log.info("Merged {} changed movies into the catalog snapshot of {} movies in {} ms, {}",
+                        movieIds.size(), movies, millis, outcome);
+            }
+        } catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+            // the current snapshot stays, the next run starts over with a full build that still has to
+            // take the drained changes from the primary
+            fullRebuildNeeded = true;
+            changed.addAll(movieIds);
+            log.error("Catalog snapshot build failed", e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    private Snapshot publish(Path temp, String version) throws IOException {
+        Path file = directory.resolve(PREFIX + version + SUFFIX);
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Snapshot built = new Snapshot(file, etag(version), Files.size(file), Instant.now());
+        Snapshot replaced = current;
+        current = built;
+        // two versions back, nothing can still be sending it
+        if (previous != null && !previous.file().equals(file) && !previous.file().equals(replaced.file())) {
+            deleteQuietly(previous.file());
+        }
+        previous = replaced;
+        return built;
+    }
+
+    // The catalog is read through the replicas, which may not have the changes whose events were drained
+    // for this build yet. Those movies are taken from the primary and merged in, the same way as merge().
+    private int writeAll(Set<Integer> movieIds, OutputStream out) throws IOException {
+        Iterator<MovieDto> updates = loadChanged(movieIds).iterator();
+        MovieDto update = updates.hasNext() ? updates.next() : null;
+        int movies = 0;
+        Integer after = 0;
+        List<Integer> ids;
+        do {
+            Integer from = after;
+            ids = readTransaction.execute(status -> movieRepository.findIdsAfter(from, PageRequest.of(0, LOAD_CHUNK)));
+            for (MovieDto movie : load(ids)) {
+                while (update != null && update.getMovieId() < movie.getMovieId()) {
+                    writeLine(update, out);
+                    movies++;
+                    update = updates.hasNext() ? updates.next() : null;
+                }
+                if (movieIds.contains(movie.getMovieId())) {
+                    // changed or deleted on the primary, a changed one is written from update
+                    continue;
+                }
+                writeLine(movie, out);
+                movies++;
+            }
+            if (!ids.isEmpty()) {
+                after = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == LOAD_CHUNK);
+        while (update != null) {
+            writeLine(update, out);
+            movies++;
+            update = updates.hasNext() ? updates.next() : null;
+        }
+        return movies;
+    }
+
+    // walks the previous snapshot and the changed movies side by side, both in id order
+    private int merge(Path source, Set<Integer> movieIds, OutputStream out) throws IOException {
+        Iterator<MovieDto> updates = loadChanged(movieIds).iterator();
+        MovieDto update = updates.hasNext() ? updates.next() : null;
+        int movies = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(source), 64 * 1024), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int movieId = movieIdOf(line);
+                while (update != null && update.getMovieId() < movieId) {
+                    writeLine(update, out);
+                    movies++;
+                    update = updates.hasNext() ? updates.next() : null;
+                }
+                if (movieIds.contains(movieId)) {
+                    // changed or deleted, a changed one is written from update
+                    continue;
+                }
+                out.write(line.getBytes(StandardCharsets.UTF_8));
+                out.write('\n');
+                movies++;
+            }
+        }
+        while (update != null) {
+            writeLine(update, out);
+            movies++;
+            update = updates.hasNext() ? updates.next() : null;
+        }
+        return movies;
+    }
+
+    // the changed movies that still exist, from the primary so the snapshot has the write that triggered it
+    private List<MovieDto> loadChanged(Set<Integer> movieIds) {
+        List<MovieDto> movies = new ArrayList<>(movieIds.size());
+        List<Integer> chunk = new ArrayList<>(LOAD_CHUNK);
+        for (Integer movieId : movieIds) {
+            chunk.add(movieId);
+            if (chunk.size() == LOAD_CHUNK) {
+                movies.addAll(ReadRouting.onPrimary(() -> load(chunk)));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            movies.addAll(ReadRouting.onPrimary(() -> load(chunk)));
+        }
+        return movies;
+    }
+
+    private List<MovieDto> load(List<Integer> movieIds) {
+        List<MovieDto> movies = new ArrayList<>(readTransaction.execute(status ->
+                movieRepository.findAllProjectedByIds(movieIds, ALL_FIELDS)));
+        movies.sort(Comparator.comparing(MovieDto::getMovieId));
+        for (MovieDto movie : movies) {
+            movie.setPosterUrl(baseUrl + "/file/" + movie.getPoster());
+            // sorted, a HashSet's order would differ between nodes and change the bytes and the ETag
+            if (movie.getMovieCast() != null) {
+                movie.setMovieCast(new TreeSet<>(movie.getMovieCast()));
+            }
+        }
+        return movies;
+    }
+
+    private void writeLine(MovieDto movie, OutputStream out) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(movie));
+        out.write('\n');
+    }
+
+    private static int movieIdOf(String line) {
+        if (!line.startsWith(LINE_START)) {
+            throw new IllegalStateException("Unexpected line in catalog snapshot: " + line);
+        }
+        int end = LINE_START.length();
+        while (end < line.length() && Character.isDigit(line.charAt(end))) {
+            end++;
+        }
+        return Integer.parseInt(line, LINE_START.length(), end, 10);
+    }
+
+    private OutputStream gzip(OutputStream out) throws IOException {
+        // the gzip header carries no timestamp, so equal catalogs give equal files and ETags on every node
+        return new GZIPOutputStream(new BufferedOutputStream(out, 64 * 1024), 64 * 1024) {
+            {
+                def.setLevel(compressionLevel);
+            }
+        };
+    }
+
+    private static String etag(String version) {
+        return "\"" + PREFIX + version + "\"";
+    }
+
+    private static Snapshot adopt(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        String version = name.substring(PREFIX.length(), name.length() - SUFFIX.length());
+        return new Snapshot(file, etag(version), Files.size(file), Files.getLastModifiedTime(file).toInstant());
+    }
+
+    private static Instant lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+}
@@ -0,0 +1,129 @@
+package com.movieflex.services;
+
+import com.movieflex.entities.CacheChangeType;
+import com.movieflex.utlis.SingleFlight;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Concurrent fetches of the same poster share one read of the storage backend. A stream can't be shared,
+// so the caller that runs the load buffers the poster and every waiter gets its own stream over the bytes.
+// Posters above the buffer limit stream straight from the backend for each caller as before.
+@Service
+@Primary
+public class CoalescingFileService implements FileService, CacheInvalidationListener {
+    private final FileService delegate;
+
+    private final SingleFlight<String, byte[]> posterLoads;
+
+    private final int maxBufferedBytes;
+
+    private final HotKeyTracker hotKeyTracker;
+
+    public CoalescingFileService(@Qualifier("posterStorage") FileService delegate, HotKeyTracker hotKeyTracker,
+                                 @Value("${project.single-flight.wait-timeout:PT5S}") Duration waitTimeout,
+                                 @Value("${project.single-flight.max-buffered-poster-size:2MB}") DataSize maxBufferedPosterSize) {
+        this.delegate = delegate;
+        this.hotKeyTracker = hotKeyTracker;
+        this.posterLoads = new SingleFlight<>(waitTimeout);
+        this.maxBufferedBytes = (int) maxBufferedPosterSize.toBytes();
+    }
+
+    @Override
+    public InputStream getResourceFile(String fileName) throws IOException {
+        hotKeyTracker.recordPoster(fileName);
+        // the oversized stream of the caller that ran the load, never seen by the waiters
+        InputStream[] unbuffered = new InputStream[1];
+        byte[] poster;
+        try {
+            poster = posterLoads.load(fileName, () -> {
+                try {
+                    return readBuffered(fileName, unbuffered);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // keeps FileNotFoundException intact for the 404 mapping
+            throw e.getCause();
+        }
+        if (unbuffered[0] != null) {
+            return unbuffered[0];
+        }
+        if (poster == null) {
+            return delegate.getResourceFile(fileName);
+        }
+        return new ByteArrayInputStream(poster);
+    }
+
+    // null when the poster is too large to share
+    private byte[] readBuffered(String fileName, InputStream[] unbuffered) throws IOException {
+        InputStream in = delegate.getResourceFile(fileName);
+        try {
+            byte[] head = in.readNBytes(maxBufferedBytes + 1);
+            if (head.length <= maxBufferedBytes) {
+                in.close();
+                return head;
+            }
+            unbuffered[0] = new SequenceInputStream(new ByteArrayInputStream(head), in);
+            return null;
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public String uploadFile(MultipartFile file) throws IOException {
+        return delegate.uploadFile(file);
+    }
+
+    @Override
+    public String replaceFile(MultipartFile file) throws IOException {
+        String fileName = delegate.replaceFile(file);
+        posterLoads.forget(fileName::equals);
+        return fileName;
+    }
+
+    @Override
+    public boolean exists(String fileName) throws IOException {
+        return delegate.exists(fileName);
+    }
+
+    @Override
+    public void deleteFile(String fileName) throws IOException {
+        delegate.deleteFile(fileName);
+        posterLoads.forget(fileName::equals);
+    }
+
+    @Override
+    public Stream<String> listFilesModifiedBefore(Instant cutoff) throws IOException {
+        return delegate.listFilesModifiedBefore(cutoff);
+    }
+
+    // posters replaced or deleted by other nodes sharing the bucket
+    @Override
+    public void invalidate(CacheChangeType type, Set<String> keys, boolean local) {
+        if (type == CacheChangeType.POSTER) {
+            posterLoads.forget(keys::contains);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        posterLoads.forgetAll();
+    }
+}
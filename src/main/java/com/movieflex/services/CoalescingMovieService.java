@@ -0,0 +1,153 @@
+package com.movieflex.services;
+
+import com.movieflex.datasource.ReadRouting;
+import com.movieflex.dto.MovieBatchResponse;
+import com.movieflex.dto.MovieDto;
+import com.movieflex.dto.MovieField;
+import com.movieflex.dto.MoviePageResponse;
+import com.movieflex.entities.CacheChangeType;
+import com.movieflex.utlis.SingleFlight;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+// Turns a herd of identical detail and page reads, e.g. right after a popular movie changed or a node
+// restarted with cold caches, into one query per key. It sits outside the transactional service so that
+// waiting callers don't each hold a connection while the one running the query does the work. Pages are
+// then kept by MoviePageCache, so only its misses get here.
+@Service
+@Primary
+public class CoalescingMovieService implements MovieService, CacheInvalidationListener {
+    private final MovieService delegate;
+
+    private final SingleFlight<MovieKey, MovieDto> movieLoads;
+
+    private final SingleFlight<PageKey, MoviePageResponse> pageLoads;
+
+    private final HotKeyTracker hotKeyTracker;
+
+    private final MoviePageCache moviePageCache;
+
+    public CoalescingMovieService(@Qualifier("movieServiceImpl") MovieService delegate, HotKeyTracker hotKeyTracker,
+                                  MoviePageCache moviePageCache,
+                                  @Value("${project.single-flight.wait-timeout:PT5S}") Duration waitTimeout) {
+        this.delegate = delegate;
+        this.hotKeyTracker = hotKeyTracker;
+        this.moviePageCache = moviePageCache;
+        this.movieLoads = new SingleFlight<>(waitTimeout);
+        this.pageLoads = new SingleFlight<>(waitTimeout);
+    }
+
+    @Override
+    public MovieDto getMovieById(Integer id) {
+        return getMovieById(id, null);
+    }
+
+    @Override
+    public MovieDto getMovieById(Integer id, Set<MovieField> fields) {
+        hotKeyTracker.recordMovie(id);
+        return movieLoads.load(new MovieKey(id, fields, ReadRouting.isPrimaryForced()),
+                () -> delegate.getMovieById(id, fields));
+    }
+
+    @Override
+    public MoviePageResponse getAllMoviesWithPagination(Integer pageNumber, Integer pageSize) {
+        return getAllMoviesWithPagination(pageNumber, pageSize, null);
+    }
+
+    @Override
+    public MoviePageResponse getAllMoviesWithPagination(Integer pageNumber, Integer pageSize, Set<MovieField> fields) {
+        // rejected before it can be tracked or cached
+        MovieServiceImpl.pageRequest(pageNumber, pageSize, null, null);
+        hotKeyTracker.recordPage(pageNumber, pageSize, null, null, fields);
+        boolean primary = ReadRouting.isPrimaryForced();
+        return moviePageCache.get(pageNumber, pageSize, null, null, fields, primary,
+                () -> pageLoads.load(new PageKey(pageNumber, pageSize, null, null, fields, primary),
+                        () -> delegate.getAllMoviesWithPagination(pageNumber, pageSize, fields)));
+    }
+
+    @Override
+    public MoviePageResponse getAllMoviesWithPaginationAndSorting(Integer pageNumber, Integer pageSize,
+                                                                  String sortBy, String sortDirection) {
+        return getAllMoviesWithPaginationAndSorting(pageNumber, pageSize, sortBy, sortDirection, null);
+    }
+
+    @Override
+    public MoviePageResponse getAllMoviesWithPaginationAndSorting(Integer pageNumber, Integer pageSize,
+                                                                  String sortBy, String sortDirection,
+                                                                  Set<MovieField> fields) {
+        MovieServiceImpl.pageRequest(pageNumber, pageSize, sortBy, sortDirection);
+        String direction = MovieServiceImpl.sortDirection(sortDirection).name().toLowerCase();
+        hotKeyTracker.recordPage(pageNumber, pageSize, sortBy, direction, fields);
+        boolean primary = ReadRouting.isPrimaryForced();
+        return moviePageCache.get(pageNumber, pageSize, sortBy, direction, fields, primary,
+                () -> pageLoads.load(new PageKey(pageNumber, pageSize, sortBy, direction, fields, primary),
+                        () -> delegate.getAllMoviesWithPaginationAndSorting(pageNumber, pageSize, sortBy, direction, fields)));
+    }
+
+    @Override
+    public MovieDto addMovie(MovieDto movieDto, MultipartFile file) throws IOException {
+        return delegate.addMovie(movieDto, file);
+    }
+
+    @Override
+    public List<MovieDto> getAllMovies() {
+        return delegate.getAllMovies();
+    }
+
+    @Override
+    public List<MovieDto> getAllMovies(Set<MovieField> fields) {
+        return delegate.getAllMovies(fields);
+    }
+
+    @Override
+    public MovieBatchResponse getMoviesByIds(List<Integer> movieIds) {
+        return delegate.getMoviesByIds(movieIds);
+    }
+
+    @Override
+    public MovieDto updateMovie(Integer movieId, MovieDto movieDto, MultipartFile file) throws IOException {
+        return delegate.updateMovie(movieId, movieDto, file);
+    }
+
+    @Override
+    public MovieDto patchMovie(Integer movieId, MovieDto changes) {
+        return delegate.patchMovie(movieId, changes);
+    }
+
+    @Override
+    public void deleteMovie(Integer movieId) throws IOException {
+        delegate.deleteMovie(movieId);
+    }
+
+    // loads already running may have read the old row, callers arriving after the commit must not join them
+    @Override
+    public void invalidate(CacheChangeType type, Set<String> keys, boolean local) {
+        if (type != CacheChangeType.MOVIE) {
+            return;
+        }
+        movieLoads.forget(key -> keys.contains(String.valueOf(key.movieId())));
+        pageLoads.forgetAll();
+    }
+
+    @Override
+    public void invalidateAll() {
+        movieLoads.forgetAll();
+        pageLoads.forgetAll();
+    }
+
+    // reads pinned to the primary never share a load that may be running against a lagging replica
+    private record MovieKey(Integer movieId, Set<MovieField> fields, boolean primary) {
+    }
+
+    private record PageKey(Integer pageNumber, Integer pageSize, String sortBy, String sortDirection,
+                           Set<MovieField> fields, boolean primary) {
+    }
+}
@@ -5,9 +5,22 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Instant;
+import java.util.stream.Stream;
 
+// Poster storage, backed by the local project.poster directory or an S3 compatible bucket (project.storage.type)
 public interface FileService {
-    String uploadFile(String path, MultipartFile file) throws IOException;
+    String uploadFile(MultipartFile file) throws IOException;
 
-    InputStream getResourceFile(String path, String fileName) throws FileNotFoundException;
+    String replaceFile(MultipartFile file) throws IOException;
+
+    // the caller closes the stream
+    InputStream getResourceFile(String fileName) throws IOException;
+
+    boolean exists(String fileName) throws IOException;
+
+    void deleteFile(String fileName) throws IOException;
+
+    // names of the files last modified before the cutoff, the caller closes the stream
+    Stream<String> listFilesModifiedBefore(Instant cutoff) throws IOException;
 }
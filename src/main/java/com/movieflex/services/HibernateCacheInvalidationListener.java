@@ -0,0 +1,54 @@
+package com.movieflex.services;
+
+import com.movieflex.auth.entities.User;
+import com.movieflex.entities.CacheChangeType;
+import com.movieflex.entities.Movie;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+// Evicts second-level cache entries changed by other nodes; local writes already keep it current
+@Component
+public class HibernateCacheInvalidationListener implements CacheInvalidationListener {
+    private static final String MOVIE_CAST_ROLE = Movie.class.getName() + ".movieCast";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public HibernateCacheInvalidationListener(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void invalidate(CacheChangeType type, Set<String> keys, boolean local) {
+        if (local || type == CacheChangeType.POSTER) {
+            return;
+        }
+        Cache cache = cache();
+        for (String key : keys) {
+            Integer id = Integer.valueOf(key);
+            switch (type) {
+                case MOVIE -> {
+                    cache.evictEntityData(Movie.class, id);
+                    cache.evictCollectionData(MOVIE_CAST_ROLE, id);
+                }
+                case USER -> cache.evictEntityData(User.class, id);
+                default -> {
+                }
+            }
+        }
+        // the update-timestamps region is per node, so cached query results never see remote writes
+        cache.evictQueryRegions();
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache().evictAllRegions();
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
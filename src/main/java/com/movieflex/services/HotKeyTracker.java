@@ -0,0 +1,179 @@
+package com.movieflex.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movieflex.dto.MovieField;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts which movies, posters and pages are read, and periodically writes the hottest ones with their
+// decayed scores to a small local file. The next instance preloads them (see CacheWarmUpService) and
+// carries on from the saved scores, so a short-lived instance doesn't wipe out the hot set.
+@Component
+public class HotKeyTracker {
+    private static final Logger log = LoggerFactory.getLogger(HotKeyTracker.class);
+
+    // scores below this are forgotten so idle keys don't pile up across snapshots
+    private static final double MIN_SCORE = 0.5;
+
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<Integer, LongAdder> movieReads = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> posterReads = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<HotPage, LongAdder> pageReads = new ConcurrentHashMap<>();
+
+    // owned by snapshot, which is synchronized
+    private final Map<Integer, Double> movieScores = new HashMap<>();
+    private final Map<String, Double> posterScores = new HashMap<>();
+    private final Map<HotPage, Double> pageScores = new HashMap<>();
+
+    @Value("${project.warm-up.snapshot-file:warm-up/hot-set.json}")
+    private Path snapshotFile;
+
+    @Value("${project.warm-up.max-tracked-keys:10000}")
+    private int maxTrackedKeys;
+
+    @Value("${project.warm-up.movies:1000}")
+    private int maxMovies;
+
+    @Value("${project.warm-up.posters:200}")
+    private int maxPosters;
+
+    @Value("${project.warm-up.pages:100}")
+    private int maxPages;
+
+    public HotKeyTracker(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public void recordMovie(Integer movieId) {
+        increment(movieReads, movieId);
+    }
+
+    public void recordPoster(String fileName) {
+        increment(posterReads, fileName);
+    }
+
+    public void recordPage(Integer pageNumber, Integer pageSize, String sortBy, String sortDirection,
+                           Set<MovieField> fields) {
+        increment(pageReads, new HotPage(pageNumber, pageSize, sortBy, sortDirection, fields));
+    }
+
+    private <K> void increment(ConcurrentHashMap<K, LongAdder> counters, K key) {
+        LongAdder adder = counters.get(key);
+        if (adder == null) {
+            // random ids or page numbers must not grow the map without bound, new keys wait for the next snapshot
+            if (counters.size() >= maxTrackedKeys) {
+                return;
+            }
+            adder = counters.computeIfAbsent(key, k -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    // the previous instance's hot set, empty when there is none or it can't be read
+    public synchronized HotSet load() {
+        if (!Files.isRegularFile(snapshotFile)) {
+            return HotSet.EMPTY;
+        }
+        HotSet hotSet;
+        try {
+            hotSet = objectMapper.readValue(snapshotFile.toFile(), HotSet.class);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable hot set snapshot {}: {}", snapshotFile, e.getMessage());
+            return HotSet.EMPTY;
+        }
+        hotSet.movies().forEach(entry -> movieScores.merge(entry.key(), entry.score(), Double::sum));
+        hotSet.posters().forEach(entry -> posterScores.merge(entry.key(), entry.score(), Double::sum));
+        hotSet.pages().forEach(entry -> pageScores.merge(entry.key(), entry.score(), Double::sum));
+        return hotSet;
+    }
+
+    @Scheduled(fixedDelayString = "${project.warm-up.snapshot-interval:PT5M}",
+            initialDelayString = "${project.warm-up.snapshot-interval:PT5M}")
+    public synchronized void snapshot() {
+        HotSet hotSet = new HotSet(
+                fold(movieReads, movieScores, maxMovies),
+                fold(posterReads, posterScores, maxPosters),
+                fold(pageReads, pageScores, maxPages));
+        if (hotSet.size() == 0) {
+            return;
+        }
+        try {
+            Path dir = snapshotFile.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            // written next to the target and moved over it, a crash mid-write never leaves half a file behind
+            Path tmp = Files.createTempFile(dir, "hot-set", ".tmp");
+            try {
+                objectMapper.writeValue(tmp.toFile(), hotSet);
+                Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            log.warn("Could not write the hot set snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    // halves the old scores, adds the reads since the last snapshot and returns the top entries
+    private static <K> List<HotEntry<K>> fold(ConcurrentHashMap<K, LongAdder> counters, Map<K, Double> scores, int limit) {
+        scores.replaceAll((key, score) -> score / 2);
+        counters.forEach((key, adder) -> {
+            long reads = adder.sumThenReset();
+            if (reads > 0) {
+                scores.merge(key, (double) reads, Double::sum);
+            } else {
+                counters.remove(key, adder);
+            }
+        });
+        scores.values().removeIf(score -> score < MIN_SCORE);
+        List<HotEntry<K>> top = new ArrayList<>(scores.size());
+        scores.forEach((key, score) -> top.add(new HotEntry<>(key, score)));
+        top.sort(Comparator.comparingDouble(HotEntry<K>::score).reversed());
+        return top.size() > limit ? new ArrayList<>(top.subList(0, limit)) : top;
+    }
+
+    public record HotSet(List<HotEntry<Integer>> movies, List<HotEntry<String>> posters, List<HotEntry<HotPage>> pages) {
+        static final HotSet EMPTY = new HotSet(List.of(), List.of(), List.of());
+
+        public HotSet {
+            movies = movies == null ? List.of() : movies;
+            posters = posters == null ? List.of() : posters;
+            pages = pages == null ? List.of() : pages;
+        }
+
+        public int size() {
+            return movies.size() + posters.size() + pages.size();
+        }
+    }
+
+    public record HotEntry<K>(K key, double score) {
+    }
+
+    // sortBy and sortDirection are null for unsorted pages, fields is null for full movies
+    public record HotPage(Integer pageNumber, Integer pageSize, String sortBy, String sortDirection,
+                          Set<MovieField> fields) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.movieflex.services;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+// Files in the project.poster directory, only fit for a single node or a shared mount
+@Service
+@Qualifier("posterStorage")
+@ConditionalOnProperty(name = "project.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalFileService implements FileService {
+    @Value("${project.poster}")
+    private String path;
+
+    @Override
+    public String uploadFile(MultipartFile file) throws IOException {
+        //get name of the file
+        String fileName = file.getOriginalFilename();
+        // get file path
+        String filePath = path + File.separator + fileName;
+        // create file object
+        File f = new File(path);
+        if (!f.exists()) {
+            f.mkdirs();
+        }
+        // copy the file or upload the file to the path
+        Files.copy(file.getInputStream(), Paths.get(filePath));
+        return fileName;
+    }
+
+    @Override
+    public String replaceFile(MultipartFile file) throws IOException {
+        String fileName = file.getOriginalFilename();
+        String filePath = path + File.separator + fileName;
+        File f = new File(path);
+        if (!f.exists()) {
+            f.mkdirs();
+        }
+        // overwrite in place so the name referenced by the movie never points at a missing file
+        Files.copy(file.getInputStream(), Paths.get(filePath), StandardCopyOption.REPLACE_EXISTING);
+        return fileName;
+    }
+
+    @Override
+    public InputStream getResourceFile(String fileName) throws FileNotFoundException {
+        String filePath = path + File.separator + fileName;
+        try {
+            return new FileInputStream(filePath);
+        } catch (FileNotFoundException e) {
+            // the file name alone, the poster directory is no business of the client
+            throw new FileNotFoundException(fileName);
+        }
+    }
+
+    @Override
+    public boolean exists(String fileName) {
+        return Files.exists(Paths.get(path + File.separator + fileName));
+    }
+
+    @Override
+    public void deleteFile(String fileName) throws IOException {
+        Files.deleteIfExists(Paths.get(path + File.separator + fileName));
+    }
+
+    @Override
+    public Stream<String> listFilesModifiedBefore(Instant cutoff) throws IOException {
+        Path dir = Paths.get(path);
+        if (!Files.isDirectory(dir)) {
+            return Stream.empty();
+        }
+        return Files.list(dir)
+                .filter(file -> Files.isRegularFile(file) && modifiedBefore(file, cutoff))
+                .map(file -> file.getFileName().toString());
+    }
+
+    private static boolean modifiedBefore(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            // vanished between listing and stat, e.g. deleted by the poster worker
+            return false;
+        }
+    }
+}
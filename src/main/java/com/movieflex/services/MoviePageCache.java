@@ -0,0 +1,129 @@
+package com.movieflex.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.movieflex.datasource.DataSourceRoutingProperties;
+import com.movieflex.dto.MovieField;
+import com.movieflex.dto.MoviePageResponse;
+import com.movieflex.entities.CacheChangeType;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Assembled listing pages, total count included, so the landing page and its neighbours don't run the
+// same ORDER BY ... LIMIT and COUNT(*) for every visitor. Any movie change bumps the catalog version,
+// which is part of the key: every cached page is dropped at once, and a load that started before the
+// bump can only store its result under the old version, where nobody looks anymore.
+@Component
+public class MoviePageCache implements CacheInvalidationListener {
+    private final Cache<PageKey, MoviePageResponse> pages;
+    private final boolean enabled;
+    // with replicas a page loaded right after a change may still be the old one, so for the replica lag
+    // after a bump nothing is stored
+    private final long holdOffNanos;
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private volatile long lastBump;
+
+    // the routing properties only exist once replicas are configured
+    public MoviePageCache(ObjectProvider<DataSourceRoutingProperties> dataSourceRoutingProperties,
+                          @Value("${project.page-cache.enabled:true}") boolean enabled,
+                          @Value("${project.page-cache.max-movies:20000}") long maxMovies,
+                          @Value("${project.page-cache.ttl:PT1M}") Duration ttl) {
+        this.enabled = enabled;
+        DataSourceRoutingProperties routing = dataSourceRoutingProperties.getIfAvailable();
+        this.holdOffNanos = routing != null ? routing.maxReplicaLag().toNanos() : 0;
+        // nothing has changed yet as far as this node knows, so the warm-up's pages are stored right away
+        this.lastBump = System.nanoTime() - holdOffNanos;
+        // bounded by the movies held rather than the pages, a page of 100 weighs as much as 100 pages of 1
+        this.pages = Caffeine.newBuilder()
+                .maximumWeight(maxMovies)
+                .weigher((PageKey key, MoviePageResponse page) -> 1 + page.movieDtos().size())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // sortBy and sortDirection are null for unsorted pages, fields is null for full movies. Reads pinned
+    // to the primary skip the lookup, they follow the caller's own write, but their result is stored.
+    public MoviePageResponse get(Integer pageNumber, Integer pageSize, String sortBy, String sortDirection,
+                                 Set<MovieField> fields, boolean primary, Supplier<MoviePageResponse> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long version = catalogVersion.get();
+        PageKey key = new PageKey(version, pageNumber, pageSize, sortBy, sortDirection, fields);
+        if (!primary) {
+            MoviePageResponse cached = pages.getIfPresent(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        MoviePageResponse page = loader.get();
+        store(key, page, primary);
+        return page;
+    }
+
+    // the same for loads that complete later, like those of the reactive read path; the key and its version
+    // are taken when this is called
+    public CompletionStage<MoviePageResponse> getAsync(Integer pageNumber, Integer pageSize, String sortBy,
+                                                       String sortDirection, Set<MovieField> fields,
+                                                       Supplier<CompletionStage<MoviePageResponse>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        PageKey key = new PageKey(catalogVersion.get(), pageNumber, pageSize, sortBy, sortDirection, fields);
+        MoviePageResponse cached = pages.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return loader.get().thenApply(page -> {
+            store(key, page, false);
+            return page;
+        });
+    }
+
+    private void store(PageKey key, MoviePageResponse page, boolean primary) {
+        if (primary || System.nanoTime() - lastBump >= holdOffNanos) {
+            pages.put(key, page);
+        }
+    }
+
+    public CacheStats stats() {
+        com.github.benmanes.caffeine.cache.stats.CacheStats stats = pages.stats();
+        return new CacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(), pages.estimatedSize(),
+                catalogVersion.get());
+    }
+
+    @Override
+    public void invalidate(CacheChangeType type, Set<String> keys, boolean local) {
+        if (type == CacheChangeType.MOVIE) {
+            bump();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        bump();
+    }
+
+    private void bump() {
+        lastBump = System.nanoTime();
+        catalogVersion.incrementAndGet();
+        // unreachable now, this only gives the memory back before they expire
+        pages.invalidateAll();
+    }
+
+    private record PageKey(long catalogVersion, Integer pageNumber, Integer pageSize, String sortBy,
+                           String sortDirection, Set<MovieField> fields) {
+    }
+
+    public record CacheStats(long hits, long misses, long evictions, long pages, long catalogVersion) {
+    }
+}
@@ -1,24 +1,39 @@
 package com.movieflex.services;
 
+import com.movieflex.dto.MovieBatchResponse;
 import com.movieflex.dto.MovieDto;
+import com.movieflex.dto.MovieField;
 import com.movieflex.dto.MoviePageResponse;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 
 public interface MovieService {
     MovieDto addMovie(MovieDto movieDto, MultipartFile file) throws IOException;
 
     MovieDto getMovieById(Integer id);
 
+    MovieDto getMovieById(Integer id, Set<MovieField> fields);
+
     List<MovieDto> getAllMovies();
 
+    List<MovieDto> getAllMovies(Set<MovieField> fields);
+
+    MovieBatchResponse getMoviesByIds(List<Integer> movieIds);
+
     MovieDto updateMovie(Integer movieId, MovieDto movieDto, MultipartFile file) throws IOException;
 
+    MovieDto patchMovie(Integer movieId, MovieDto changes);
+
     void deleteMovie(Integer movieId) throws IOException;
 
     MoviePageResponse getAllMoviesWithPagination(Integer pageNumber, Integer pageSize);
 
+    MoviePageResponse getAllMoviesWithPagination(Integer pageNumber, Integer pageSize, Set<MovieField> fields);
+
     MoviePageResponse getAllMoviesWithPaginationAndSorting(Integer pageNumber, Integer pageSize, String sortBy, String sortDirection);
+
+    MoviePageResponse getAllMoviesWithPaginationAndSorting(Integer pageNumber, Integer pageSize, String sortBy, String sortDirection, Set<MovieField> fields);
 }
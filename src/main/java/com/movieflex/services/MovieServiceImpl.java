@@ -1,25 +1,35 @@
 package com.movieflex.services;
 
+import com.movieflex.dto.MovieBatchResponse;
 import com.movieflex.dto.MovieDto;
+import com.movieflex.dto.MovieField;
 import com.movieflex.dto.MoviePageResponse;
+import com.movieflex.entities.CacheChangeType;
 import com.movieflex.entities.Movie;
+import com.movieflex.entities.Person;
 import com.movieflex.exceptions.FileExcistsException;
+import com.movieflex.exceptions.InvalidRequestException;
 import com.movieflex.exceptions.MovieNoteFoundException;
 import com.movieflex.repositories.MovieRepository;
+import com.movieflex.utlis.AppConstants;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class MovieServiceImpl implements MovieService {
@@ -27,24 +37,35 @@ public class MovieServiceImpl implements MovieService {
 
     private  final FileService fileService;
 
-    @Value("${project.poster}")
-    private  String path;
+    private final PosterJobService posterJobService;
+
+    private final CacheInvalidationService cacheInvalidationService;
+
+    private final PersonService personService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Value("${base.url}")
     private  String baseUrl;
 
-    public MovieServiceImpl(MovieRepository movieRepository, FileService fileService) {
+    public MovieServiceImpl(MovieRepository movieRepository, FileService fileService, PosterJobService posterJobService,
+                            CacheInvalidationService cacheInvalidationService, PersonService personService) {
         this.movieRepository = movieRepository;
         this.fileService = fileService;
+        this.posterJobService = posterJobService;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.personService = personService;
     }
 
     @Override
+    @Transactional
     public MovieDto addMovie(MovieDto movieDto, MultipartFile file) throws IOException {
         // upload the file
-        if(Files.exists(Paths.get(path + File.separator + file.getOriginalFilename()))) {
+        if(fileService.exists(file.getOriginalFilename())) {
             throw new FileExcistsException("File already exists, please choose a different filename");
         }
-        String uploadedFileName = fileService.uploadFile(path, file);
+        String uploadedFileName = fileService.uploadFile(file);
         // set the value of field poster as filename
         movieDto.setPoster(uploadedFileName);
         // map dto to movei object
@@ -53,12 +74,14 @@ public class MovieServiceImpl implements MovieService {
                 movieDto.getTitle(),
                 movieDto.getDirector(),
                 movieDto.getStudio(),
-                movieDto.getMovieCast(),
+                personService.intern(movieDto.getMovieCast()),
                 movieDto.getReleaseYear(),
                 movieDto.getPoster()
         );
         // save the movie object --> saved movie object
         Movie savedMovie = movieRepository.save(movie);
+        // let the other nodes know, committed together with the movie
+        cacheInvalidationService.publish(CacheChangeType.MOVIE, savedMovie.getMovieId());
         // generate the posterUrl
         String posterUrl = baseUrl + "/file/" + uploadedFileName;
         // map movie object to dto object and return it
@@ -67,7 +90,7 @@ public class MovieServiceImpl implements MovieService {
                 savedMovie.getTitle(),
                 savedMovie.getDirector(),
                 savedMovie.getStudio(),
-                savedMovie.getMovieCast(),
+                PersonService.names(savedMovie.getMovieCast()),
                 savedMovie.getReleaseYear(),
                 savedMovie.getPoster(),
                 posterUrl
@@ -76,6 +99,7 @@ public class MovieServiceImpl implements MovieService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public MovieDto getMovieById(Integer movieId) {
         // check the data in db and if exists, fetch the data of given id
         Movie existingMovie = movieRepository.findById(movieId)
@@ -88,7 +112,7 @@ public class MovieServiceImpl implements MovieService {
                 existingMovie.getTitle(),
                 existingMovie.getDirector(),
                 existingMovie.getStudio(),
-                existingMovie.getMovieCast(),
+                PersonService.names(existingMovie.getMovieCast()),
                 existingMovie.getReleaseYear(),
                 existingMovie.getPoster(),
                 posterUrl
@@ -97,6 +121,18 @@ public class MovieServiceImpl implements MovieService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public MovieDto getMovieById(Integer movieId, Set<MovieField> fields) {
+        if (fields == null) {
+            return getMovieById(movieId);
+        }
+        MovieDto response = movieRepository.findProjectedById(movieId, fields)
+                .orElseThrow(() -> new MovieNoteFoundException("Movie not found with id : "+ movieId));
+        return withPosterUrl(response, fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<MovieDto> getAllMovies() {
         // fetch all data from db
         List<Movie> movies = movieRepository.findAll();
@@ -110,7 +146,7 @@ public class MovieServiceImpl implements MovieService {
                     movie.getTitle(),
                     movie.getDirector(),
                     movie.getStudio(),
-                    movie.getMovieCast(),
+                    PersonService.names(movie.getMovieCast()),
                     movie.getReleaseYear(),
                     movie.getPoster(),
                     posterUrl
@@ -121,17 +157,67 @@ public class MovieServiceImpl implements MovieService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<MovieDto> getAllMovies(Set<MovieField> fields) {
+        if (fields == null) {
+            return getAllMovies();
+        }
+        List<MovieDto> movieDtos = movieRepository.findAllProjected(fields);
+        for (MovieDto movieDto : movieDtos) {
+            withPosterUrl(movieDto, fields);
+        }
+        return movieDtos;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MovieBatchResponse getMoviesByIds(List<Integer> movieIds) {
+        // drop duplicates but keep the order the client asked for
+        Set<Integer> ids = new LinkedHashSet<>(movieIds);
+        if (ids.contains(null)) {
+            throw new InvalidRequestException("Movie ids can't be empty");
+        }
+        if (ids.size() > AppConstants.MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("At most " + AppConstants.MAX_BATCH_SIZE + " movie ids can be requested at once");
+        }
+        // movies in the Movie region are taken from there and only the misses are read, with one IN query; the
+        // casts are then batch loaded the same way. The region is only checked with an explicit cache mode.
+        // The result is in the order of the ids, null where one is unknown.
+        List<Integer> idList = new ArrayList<>(ids);
+        List<Movie> movies = entityManager.unwrap(Session.class).byMultipleIds(Movie.class)
+                .with(CacheMode.NORMAL)
+                .multiLoad(idList);
+        List<MovieDto> movieDtos = new ArrayList<>(movies.size());
+        List<Integer> missingIds = new ArrayList<>();
+        for (int i = 0; i < idList.size(); i++) {
+            Movie movie = movies.get(i);
+            if (movie == null) {
+                missingIds.add(idList.get(i));
+            } else {
+                movieDtos.add(toMovieDto(movie));
+            }
+        }
+        return new MovieBatchResponse(movieDtos, missingIds);
+    }
+
+    @Override
+    @Transactional
     public MovieDto updateMovie(Integer movieId, MovieDto movieDto, MultipartFile file) throws IOException {
         // check if movie object exists with given id
         Movie existingMovie = movieRepository.findById(movieId)
                 .orElseThrow(() -> new MovieNoteFoundException("Movie not found with id : "+ movieId));
         // if file is null, do nothing
-        // if file is not null, then delete existing file associated to record
-        //and upload the new file
+        // if file is not null, upload the new file and schedule the old one for deletion
+        // once this transaction commits, so a failed save never loses the current poster
         String fileName = existingMovie.getPoster();
         if(file !=null){
-            Files.delete(Paths.get(path + File.separator + fileName));
-            fileName = fileService.uploadFile(path, file);
+            if (fileName.equals(file.getOriginalFilename())) {
+                fileService.replaceFile(file);
+            } else {
+                String oldFileName = fileName;
+                fileName = fileService.uploadFile(file);
+                posterJobService.schedulePosterDeletion(oldFileName);
+            }
         }
         /// set movieDto's poster value, according to steps 2
         movieDto.setPoster(fileName);
@@ -142,12 +228,13 @@ public class MovieServiceImpl implements MovieService {
                 movieDto.getTitle(),
                 movieDto.getDirector(),
                 movieDto.getStudio(),
-                movieDto.getMovieCast(),
+                personService.intern(movieDto.getMovieCast()),
                 movieDto.getReleaseYear(),
                 movieDto.getPoster()
         );
         // save the movie object -~ return saved movie object
         Movie savedMovie = movieRepository.save(movie);
+        cacheInvalidationService.publish(CacheChangeType.MOVIE, movieId);
         // generate posterUrl for it
         String posterUrl = baseUrl + "/file/" + savedMovie.getPoster();
         // map to MovieDto and return it
@@ -156,7 +243,7 @@ public class MovieServiceImpl implements MovieService {
                 savedMovie.getTitle(),
                 savedMovie.getDirector(),
                 savedMovie.getStudio(),
-                savedMovie.getMovieCast(),
+                PersonService.names(savedMovie.getMovieCast()),
                 savedMovie.getReleaseYear(),
                 savedMovie.getPoster(),
                 posterUrl
@@ -165,19 +252,71 @@ public class MovieServiceImpl implements MovieService {
     }
 
     @Override
+    @Transactional
+    public MovieDto patchMovie(Integer movieId, MovieDto changes) {
+        Movie movie = movieRepository.findById(movieId)
+                .orElseThrow(() -> new MovieNoteFoundException("Movie not found with id : "+ movieId));
+        // posters are files, they only change through the multipart update
+        if (changes.getPoster() != null && !changes.getPoster().equals(movie.getPoster())) {
+            throw new InvalidRequestException("The poster can only be changed by uploading a new file");
+        }
+        // null fields are left as they are, the managed entity is only dirtied by real changes
+        boolean changed = false;
+        if (changes.getTitle() != null && !changes.getTitle().equals(movie.getTitle())) {
+            movie.setTitle(requireText(changes.getTitle(), "title"));
+            changed = true;
+        }
+        if (changes.getDirector() != null && !changes.getDirector().equals(movie.getDirector())) {
+            movie.setDirector(requireText(changes.getDirector(), "director"));
+            changed = true;
+        }
+        if (changes.getStudio() != null && !changes.getStudio().equals(movie.getStudio())) {
+            movie.setStudio(requireText(changes.getStudio(), "studio"));
+            changed = true;
+        }
+        if (changes.getReleaseYear() != null && !changes.getReleaseYear().equals(movie.getReleaseYear())) {
+            movie.setReleaseYear(changes.getReleaseYear());
+            changed = true;
+        }
+        if (changes.getMovieCast() != null && !changes.getMovieCast().equals(PersonService.names(movie.getMovieCast()))) {
+            // edit the loaded collection in place so only the removed and added rows are written,
+            // a new Set would make Hibernate delete and re-insert the whole cast
+            Set<Person> people = personService.intern(changes.getMovieCast());
+            Set<Person> cast = movie.getMovieCast();
+            cast.retainAll(people);
+            cast.addAll(people);
+            changed = true;
+        }
+        if (changed) {
+            cacheInvalidationService.publish(CacheChangeType.MOVIE, movieId);
+        }
+        return toMovieDto(movie);
+    }
+
+    private static String requireText(String value, String field) {
+        if (value.isBlank()) {
+            throw new InvalidRequestException("The " + field + " can't be blank");
+        }
+        return value;
+    }
+
+    @Override
+    @Transactional
     public void deleteMovie(Integer movieId) throws IOException {
         // check if movie exist with given id
         Movie existingMovie = movieRepository.findById(movieId)
                 .orElseThrow(() -> new MovieNoteFoundException("Movie not found with id : "+ movieId));
-        // delete the file associatd with this object
-        Files.deleteIfExists(Paths.get(path+ File.separator + existingMovie.getPoster()));
+        // schedule deletion of the file associatd with this object, it runs after commit
+        posterJobService.schedulePosterDeletion(existingMovie.getPoster());
         // delete the movie object
         movieRepository.deleteById(movieId);
+        cacheInvalidationService.publish(CacheChangeType.MOVIE, movieId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public MoviePageResponse getAllMoviesWithPagination(Integer pageNumber, Integer pageSize) {
-        Pageable pageable = PageRequest.of(pageNumber, pageSize);
+        Pageable pageable = pageRequest(pageNumber, pageSize, null, null);
         Page<Movie> moviePage = movieRepository.findAll(pageable);
         List<Movie> movies = moviePage.getContent();
 
@@ -189,7 +328,7 @@ public class MovieServiceImpl implements MovieService {
                     movie.getTitle(),
                     movie.getDirector(),
                     movie.getStudio(),
-                    movie.getMovieCast(),
+                    PersonService.names(movie.getMovieCast()),
                     movie.getReleaseYear(),
                     movie.getPoster(),
                     posterUrl
@@ -204,11 +343,19 @@ public class MovieServiceImpl implements MovieService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public MoviePageResponse getAllMoviesWithPagination(Integer pageNumber, Integer pageSize, Set<MovieField> fields) {
+        if (fields == null) {
+            return getAllMoviesWithPagination(pageNumber, pageSize);
+        }
+        return toMoviePageResponse(movieRepository.findAllProjected(fields, pageRequest(pageNumber, pageSize, null, null)), fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public MoviePageResponse getAllMoviesWithPaginationAndSorting(Integer pageNumber, Integer pageSize,
                                                                   String sortBy, String sortDirection) {
-        Sort sort = sortDirection.equalsIgnoreCase("asc") ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, sort);
+        Pageable pageable = pageRequest(pageNumber, pageSize, sortBy, sortDirection);
         Page<Movie> moviePage = movieRepository.findAll(pageable);
         List<Movie> movies = moviePage.getContent();
 
@@ -220,7 +367,7 @@ public class MovieServiceImpl implements MovieService {
                     movie.getTitle(),
                     movie.getDirector(),
                     movie.getStudio(),
-                    movie.getMovieCast(),
+                    PersonService.names(movie.getMovieCast()),
                     movie.getReleaseYear(),
                     movie.getPoster(),
                     posterUrl
@@ -233,4 +380,75 @@ public class MovieServiceImpl implements MovieService {
                 moviePage.isLast()
         );
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MoviePageResponse getAllMoviesWithPaginationAndSorting(Integer pageNumber, Integer pageSize,
+                                                                  String sortBy, String sortDirection,
+                                                                  Set<MovieField> fields) {
+        if (fields == null) {
+            return getAllMoviesWithPaginationAndSorting(pageNumber, pageSize, sortBy, sortDirection);
+        }
+        return toMoviePageResponse(movieRepository.findAllProjected(fields,
+                pageRequest(pageNumber, pageSize, sortBy, sortDirection)), fields);
+    }
+
+    // sortBy and sortDirection are null for unsorted pages. Only indexed columns can be sorted on, and pages
+    // are capped like batches, so a request can't force a filesort or pull the whole catalog.
+    public static Pageable pageRequest(Integer pageNumber, Integer pageSize, String sortBy, String sortDirection) {
+        if (pageNumber < 0) {
+            throw new InvalidRequestException("pageNumber can't be negative");
+        }
+        if (pageSize < 1 || pageSize > AppConstants.MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("pageSize must be between 1 and " + AppConstants.MAX_BATCH_SIZE);
+        }
+        if (sortBy == null) {
+            return PageRequest.of(pageNumber, pageSize);
+        }
+        if (!AppConstants.SORTABLE_FIELDS.contains(sortBy)) {
+            throw new InvalidRequestException("Movies can only be sorted by " + String.join(", ", AppConstants.SORTABLE_FIELDS));
+        }
+        return PageRequest.of(pageNumber, pageSize, Sort.by(sortDirection(sortDirection), sortBy));
+    }
+
+    // anything but asc has always meant descending
+    public static Sort.Direction sortDirection(String sortDirection) {
+        return "asc".equalsIgnoreCase(sortDirection) ? Sort.Direction.ASC : Sort.Direction.DESC;
+    }
+
+    private MoviePageResponse toMoviePageResponse(Page<MovieDto> moviePage, Set<MovieField> fields) {
+        List<MovieDto> movieDtos = moviePage.getContent();
+        for (MovieDto movieDto : movieDtos) {
+            withPosterUrl(movieDto, fields);
+        }
+        return new MoviePageResponse(movieDtos, moviePage.getNumber(), moviePage.getSize(),
+                moviePage.getTotalElements(),
+                moviePage.getTotalPages(),
+                moviePage.isLast()
+        );
+    }
+
+    private MovieDto withPosterUrl(MovieDto movieDto, Set<MovieField> fields) {
+        if (fields.contains(MovieField.POSTER_URL)) {
+            movieDto.setPosterUrl(baseUrl + "/file/" + movieDto.getPoster());
+        }
+        if (!fields.contains(MovieField.POSTER)) {
+            movieDto.setPoster(null);
+        }
+        return movieDto;
+    }
+
+    private MovieDto toMovieDto(Movie movie) {
+        String posterUrl = baseUrl + "/file/" + movie.getPoster();
+        return new MovieDto(
+                movie.getMovieId(),
+                movie.getTitle(),
+                movie.getDirector(),
+                movie.getStudio(),
+                PersonService.names(movie.getMovieCast()),
+                movie.getReleaseYear(),
+                movie.getPoster(),
+                posterUrl
+        );
+    }
 }
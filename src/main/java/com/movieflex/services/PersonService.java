@@ -0,0 +1,89 @@
+package com.movieflex.services;
+
+import com.movieflex.entities.Person;
+import com.movieflex.exceptions.InvalidRequestException;
+import com.movieflex.repositories.PersonRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Turns cast member names into shared person rows, creating the ones that don't exist yet
+@Service
+public class PersonService {
+    private final PersonRepository personRepository;
+
+    private final CastIndex castIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PersonService(PersonRepository personRepository, CastIndex castIndex) {
+        this.personRepository = personRepository;
+        this.castIndex = castIndex;
+    }
+
+    // joins the caller's transaction; a null cast is an empty one
+    @Transactional
+    public Set<Person> intern(Collection<String> names) {
+        Set<Person> people = new HashSet<>();
+        if (names == null) {
+            return people;
+        }
+        Set<String> unknown = new HashSet<>();
+        List<Integer> knownIds = new ArrayList<>();
+        for (String name : names) {
+            if (name == null || name.isBlank()) {
+                throw new InvalidRequestException("Cast members can't be blank");
+            }
+            Integer personId = castIndex.getPersonId(name);
+            if (personId != null) {
+                knownIds.add(personId);
+            } else {
+                unknown.add(name);
+            }
+        }
+        // names already in the dictionary come from the Person region, the misses in one IN query; references
+        // would be initialized one by one as soon as the response reads their names
+        if (!knownIds.isEmpty()) {
+            for (Person person : entityManager.unwrap(Session.class).byMultipleIds(Person.class).multiLoad(knownIds)) {
+                if (person != null) {
+                    people.add(person);
+                }
+            }
+        }
+        if (unknown.isEmpty()) {
+            return people;
+        }
+        List<Person> found = personRepository.findByNameIn(unknown);
+        Set<String> missing = new HashSet<>(unknown);
+        for (Person person : found) {
+            missing.remove(person.getName());
+            // only rows that were there before, a new one is learned by the index once it is committed
+            castIndex.putPerson(person.getName(), person.getPersonId());
+            people.add(person);
+        }
+        if (!missing.isEmpty()) {
+            for (String name : missing) {
+                personRepository.insertIfAbsent(name);
+            }
+            people.addAll(personRepository.findByNameIn(missing));
+        }
+        return people;
+    }
+
+    public static Set<String> names(Set<Person> people) {
+        Set<String> names = new HashSet<>();
+        for (Person person : people) {
+            names.add(person.getName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,159 @@
+package com.movieflex.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Local copies of object store posters. A copy is written while the first download streams to the client
+// and only becomes visible once it was read to the end; least recently read files go first when trimming.
+class PosterDiskCache {
+    private static final Logger log = LoggerFactory.getLogger(PosterDiskCache.class);
+    private static final String TEMP_SUFFIX = ".part";
+
+    private final Path directory;
+    private final long maxBytes;
+    // bumped by every eviction, a download that started before it must not publish its now stale copy
+    private final AtomicLong generation = new AtomicLong();
+
+    PosterDiskCache(Path directory, long maxBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        // leftovers of downloads interrupted by a restart
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(TEMP_SUFFIX)).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    InputStream open(String fileName) {
+        Path file = pathOf(fileName);
+        try {
+            InputStream in = Files.newInputStream(file);
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return in;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    InputStream readThrough(String fileName, InputStream source) throws IOException {
+        long startGeneration = generation.get();
+        Path temp = Files.createTempFile(directory, "poster", TEMP_SUFFIX);
+        OutputStream copy = Files.newOutputStream(temp);
+        return new FilterInputStream(source) {
+            private boolean complete;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b < 0) {
+                    complete = true;
+                } else {
+                    copy.write(b);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n < 0) {
+                    complete = true;
+                } else {
+                    copy.write(buffer, offset, n);
+                }
+                return n;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    copy.close();
+                    if (complete && generation.get() == startGeneration) {
+                        Files.move(temp, pathOf(fileName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    } else {
+                        Files.deleteIfExists(temp);
+                    }
+                }
+            }
+        };
+    }
+
+    void evict(String fileName) {
+        generation.incrementAndGet();
+        try {
+            Files.deleteIfExists(pathOf(fileName));
+        } catch (IOException e) {
+            log.warn("Could not evict cached poster {}", fileName, e);
+        }
+    }
+
+    void clear() {
+        generation.incrementAndGet();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> !f.toString().endsWith(TEMP_SUFFIX)).toList()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("Could not clear the poster cache", e);
+        }
+    }
+
+    void trim() throws IOException {
+        List<Path> files = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path file : listing.filter(f -> !f.toString().endsWith(TEMP_SUFFIX)).toList()) {
+                files.add(file);
+                total += Files.size(file);
+            }
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+        files.sort(Comparator.comparing(PosterDiskCache::lastModified));
+        // trim well below the limit so the next few downloads don't trigger another pass
+        long target = maxBytes * 9 / 10;
+        for (Path file : files) {
+            if (total <= target) {
+                break;
+            }
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) {
+                total -= size;
+            }
+        }
+    }
+
+    private Path pathOf(String fileName) {
+        // file names come from uploads, the prefix and encoding keep them inside the cache directory
+        return directory.resolve("p-" + URLEncoder.encode(fileName, StandardCharsets.UTF_8));
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
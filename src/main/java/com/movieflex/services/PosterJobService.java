@@ -0,0 +1,205 @@
+package com.movieflex.services;
+
+import com.movieflex.entities.PosterJob;
+import com.movieflex.entities.PosterJobType;
+import com.movieflex.repositories.MovieRepository;
+import com.movieflex.repositories.PosterJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+// Poster files are only touched outside the request: write endpoints record a job in the same
+// transaction as the movie change and this worker applies it once the transaction has committed
+@Service
+public class PosterJobService {
+    private static final Logger log = LoggerFactory.getLogger(PosterJobService.class);
+
+    private final PosterJobRepository posterJobRepository;
+    private final MovieRepository movieRepository;
+    private final FileService fileService;
+    private final ExecutorService workers;
+    private final TransactionTemplate claimTransaction;
+
+    @Value("${project.poster-jobs.batch-size:100}")
+    private int batchSize;
+
+    @Value("${project.poster-jobs.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${project.poster-jobs.retry-backoff:PT30S}")
+    private Duration retryBackoff;
+
+    @Value("${project.poster-jobs.orphan-grace-period:PT1H}")
+    private Duration orphanGracePeriod;
+
+    @Value("${project.poster-jobs.dead-letter-retention:P7D}")
+    private Duration deadLetterRetention;
+
+    public PosterJobService(PosterJobRepository posterJobRepository, MovieRepository movieRepository, FileService fileService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${project.poster-jobs.workers:4}") int workerCount) {
+        this.posterJobRepository = posterJobRepository;
+        this.movieRepository = movieRepository;
+        this.fileService = fileService;
+        this.workers = Executors.newFixedThreadPool(workerCount);
+        this.claimTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void schedulePosterDeletion(String fileName) {
+        Instant now = Instant.now();
+        posterJobRepository.save(PosterJob.builder()
+                .type(PosterJobType.DELETE)
+                .fileName(fileName)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${project.poster-jobs.poll-interval:PT5S}")
+    public void processDueJobs() {
+        int claimed;
+        do {
+            claimed = claimTransaction.execute(status -> runBatch());
+        } while (claimed == batchSize);
+    }
+
+    // Runs in one transaction per batch: the claimed jobs stay locked while their files are deleted, so
+    // another node never runs them too, and a node dying halfway just releases them for the next poll.
+    // Returns the number of jobs claimed.
+    private int runBatch() {
+        List<PosterJob> jobs = posterJobRepository.findByAttemptsLessThanAndNextAttemptAtLessThanEqualOrderByJobId(
+                maxAttempts, Instant.now(), PageRequest.of(0, batchSize));
+        if (jobs.isEmpty()) {
+            return 0;
+        }
+        // never delete a file that a movie references again, e.g. re-uploaded after its old movie was removed.
+        // The check locks those posters, so a movie taking one of the names can't commit before we're done.
+        Set<String> referenced = movieRepository.lockPostersIn(jobs.stream().map(PosterJob::getFileName).toList());
+        List<Callable<Void>> tasks = new ArrayList<>(jobs.size());
+        for (PosterJob job : jobs) {
+            tasks.add(() -> {
+                if (!referenced.contains(job.getFileName())) {
+                    fileService.deleteFile(job.getFileName());
+                }
+                return null;
+            });
+        }
+        List<Future<Void>> results;
+        try {
+            results = workers.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            // shutting down, the jobs are released by the rollback and picked up again later
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running poster jobs", e);
+        }
+
+        List<Long> done = new ArrayList<>();
+        List<PosterJob> failed = new ArrayList<>();
+        for (int i = 0; i < jobs.size(); i++) {
+            PosterJob job = jobs.get(i);
+            // invokeAll only returns once every task is done
+            Future<Void> result = results.get(i);
+            if (result.state() == Future.State.SUCCESS) {
+                done.add(job.getJobId());
+            } else {
+                job.setAttempts(job.getAttempts() + 1);
+                // exponential backoff, capped so a long outage doesn't push retries out for days
+                long factor = 1L << Math.min(job.getAttempts() - 1, 10);
+                job.setNextAttemptAt(Instant.now().plus(retryBackoff.multipliedBy(factor)));
+                job.setLastError(abbreviate(String.valueOf(result.exceptionNow())));
+                failed.add(job);
+                if (job.getAttempts() >= maxAttempts) {
+                    // kept as a dead letter for dead-letter-retention, which also stops the orphan sweep
+                    // from scheduling the same file again in the meantime
+                    log.error("Giving up on poster job {} for file {}: {}", job.getJobId(), job.getFileName(), job.getLastError());
+                }
+            }
+        }
+        if (!done.isEmpty()) {
+            posterJobRepository.deleteAllByIdInBatch(done);
+        }
+        if (!failed.isEmpty()) {
+            posterJobRepository.saveAll(failed);
+        }
+        return jobs.size();
+    }
+
+    // Files can be orphaned when an upload succeeds but the transaction that references it rolls back
+    @Scheduled(initialDelayString = "${project.poster-jobs.sweep-initial-delay:PT5M}",
+            fixedDelayString = "${project.poster-jobs.sweep-interval:PT6H}")
+    public void sweepOrphanedPosters() throws IOException {
+        int purged = posterJobRepository.deleteExhaustedBefore(maxAttempts, Instant.now().minus(deadLetterRetention));
+        if (purged > 0) {
+            log.info("Purged {} exhausted poster jobs", purged);
+        }
+        // skip recent uploads whose transaction may still be in flight
+        Instant cutoff = Instant.now().minus(orphanGracePeriod);
+        List<String> candidates = new ArrayList<>();
+        try (Stream<String> files = fileService.listFilesModifiedBefore(cutoff)) {
+            Iterator<String> it = files.iterator();
+            while (it.hasNext()) {
+                candidates.add(it.next());
+                if (candidates.size() == batchSize) {
+                    scheduleOrphans(candidates);
+                    candidates.clear();
+                }
+            }
+        }
+        if (!candidates.isEmpty()) {
+            scheduleOrphans(candidates);
+        }
+    }
+
+    private void scheduleOrphans(List<String> fileNames) {
+        Set<String> referenced = movieRepository.findPostersIn(fileNames);
+        // a file waiting for its delete, or whose delete keeps failing, is already taken care of
+        Set<String> scheduled = posterJobRepository.findFileNamesIn(fileNames);
+        Instant now = Instant.now();
+        List<PosterJob> jobs = new ArrayList<>();
+        for (String fileName : fileNames) {
+            if (!referenced.contains(fileName) && !scheduled.contains(fileName)) {
+                jobs.add(PosterJob.builder()
+                        .type(PosterJobType.DELETE)
+                        .fileName(fileName)
+                        .nextAttemptAt(now)
+                        .createdAt(now)
+                        .build());
+            }
+        }
+        if (!jobs.isEmpty()) {
+            log.info("Scheduling deletion of {} orphaned poster files", jobs.size());
+            posterJobRepository.saveAll(jobs);
+        }
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,226 @@
+package com.movieflex.services;
+
+import com.movieflex.config.S3StorageProperties;
+import com.movieflex.entities.CacheChangeType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+// Posters in an S3 compatible bucket, shared by all nodes. Large uploads go up as parallel multipart
+// uploads, downloads are streamed and can be kept in a local read-through disk cache.
+@Service
+@Qualifier("posterStorage")
+@ConditionalOnProperty(name = "project.storage.type", havingValue = "s3")
+public class S3FileService implements FileService, CacheInvalidationListener {
+    // smallest part size S3 accepts for all but the last part
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private final S3Client s3;
+    private final S3StorageProperties properties;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final ExecutorService partUploads;
+    private final PosterDiskCache cache;
+
+    public S3FileService(S3Client s3, S3StorageProperties properties, CacheInvalidationService cacheInvalidationService)
+            throws IOException {
+        if (properties.partSize().toBytes() < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("project.storage.s3.part-size must be at least 5MB");
+        }
+        this.s3 = s3;
+        this.properties = properties;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.partUploads = Executors.newFixedThreadPool(properties.uploadParallelism());
+        String cacheDirectory = properties.cache().directory();
+        this.cache = cacheDirectory == null || cacheDirectory.isBlank() ? null
+                : new PosterDiskCache(Path.of(cacheDirectory), properties.cache().maxSize().toBytes());
+    }
+
+    @PostConstruct
+    public void createBucketIfMissing() {
+        if (!properties.createBucket()) {
+            return;
+        }
+        try {
+            s3.headBucket(b -> b.bucket(properties.bucket()));
+        } catch (NoSuchBucketException e) {
+            s3.createBucket(b -> b.bucket(properties.bucket()));
+        }
+    }
+
+    @Override
+    public String uploadFile(MultipartFile file) throws IOException {
+        String fileName = file.getOriginalFilename();
+        put(fileName, file);
+        return fileName;
+    }
+
+    @Override
+    public String replaceFile(MultipartFile file) throws IOException {
+        String fileName = file.getOriginalFilename();
+        put(fileName, file);
+        changed(fileName);
+        return fileName;
+    }
+
+    private void put(String key, MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            if (file.getSize() < properties.multipartThreshold().toBytes()) {
+                s3.putObject(b -> b.bucket(properties.bucket()).key(key).contentType(file.getContentType()),
+                        RequestBody.fromInputStream(in, file.getSize()));
+            } else {
+                putMultipart(key, file.getContentType(), in);
+            }
+        }
+    }
+
+    private void putMultipart(String key, String contentType, InputStream in) throws IOException {
+        String bucket = properties.bucket();
+        int partSize = (int) properties.partSize().toBytes();
+        String uploadId = s3.createMultipartUpload(b -> b.bucket(bucket).key(key).contentType(contentType)).uploadId();
+        // parts are read on this thread and uploaded in parallel, at most uploadParallelism buffers are held at once
+        Semaphore buffers = new Semaphore(properties.uploadParallelism());
+        List<Future<CompletedPart>> parts = new ArrayList<>();
+        try {
+            int partNumber = 1;
+            byte[] part;
+            do {
+                buffers.acquire();
+                try {
+                    part = in.readNBytes(partSize);
+                } catch (IOException e) {
+                    buffers.release();
+                    throw e;
+                }
+                if (part.length == 0 && partNumber > 1) {
+                    buffers.release();
+                    break;
+                }
+                int number = partNumber++;
+                byte[] body = part;
+                parts.add(partUploads.submit(() -> {
+                    try {
+                        String eTag = s3.uploadPart(b -> b.bucket(bucket).key(key).uploadId(uploadId).partNumber(number),
+                                RequestBody.fromBytes(body)).eTag();
+                        return CompletedPart.builder().partNumber(number).eTag(eTag).build();
+                    } finally {
+                        buffers.release();
+                    }
+                }));
+            } while (part.length == partSize);
+
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            for (Future<CompletedPart> result : parts) {
+                completed.add(result.get());
+            }
+            s3.completeMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(upload -> upload.parts(completed)));
+        } catch (InterruptedException | ExecutionException | IOException | RuntimeException e) {
+            parts.forEach(result -> result.cancel(true));
+            // otherwise the uploaded parts are kept, and billed, until a lifecycle rule removes them
+            s3.abortMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId));
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw e instanceof IOException io ? io : new IOException("Multipart upload of " + key + " failed", e);
+        }
+    }
+
+    @Override
+    public InputStream getResourceFile(String fileName) throws IOException {
+        if (cache != null) {
+            InputStream cached = cache.open(fileName);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        InputStream object;
+        try {
+            object = s3.getObject(b -> b.bucket(properties.bucket()).key(fileName));
+        } catch (NoSuchKeyException e) {
+            throw new FileNotFoundException(fileName);
+        }
+        return cache == null ? object : cache.readThrough(fileName, object);
+    }
+
+    @Override
+    public boolean exists(String fileName) {
+        try {
+            s3.headObject(b -> b.bucket(properties.bucket()).key(fileName));
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void deleteFile(String fileName) {
+        s3.deleteObject(b -> b.bucket(properties.bucket()).key(fileName));
+        changed(fileName);
+    }
+
+    @Override
+    public Stream<String> listFilesModifiedBefore(Instant cutoff) {
+        return s3.listObjectsV2Paginator(b -> b.bucket(properties.bucket())).contents().stream()
+                .filter(object -> object.lastModified().isBefore(cutoff))
+                .map(S3Object::key);
+    }
+
+    // other nodes may hold the old bytes in their disk cache
+    private void changed(String fileName) {
+        if (cache != null) {
+            cache.evict(fileName);
+        }
+        cacheInvalidationService.publish(CacheChangeType.POSTER, fileName);
+    }
+
+    @Override
+    public void invalidate(CacheChangeType type, Set<String> keys, boolean local) {
+        if (type == CacheChangeType.POSTER && cache != null && !local) {
+            keys.forEach(cache::evict);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${project.storage.s3.cache.trim-interval:PT1M}")
+    public void trimCache() throws IOException {
+        if (cache != null) {
+            cache.trim();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partUploads.shutdownNow();
+    }
+}
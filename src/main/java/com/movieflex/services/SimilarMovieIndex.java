@@ -0,0 +1,305 @@
+package com.movieflex.services;
+
+import com.movieflex.datasource.ReadRouting;
+import com.movieflex.dto.MovieDto;
+import com.movieflex.dto.MovieField;
+import com.movieflex.entities.CacheChangeType;
+import com.movieflex.exceptions.InvalidRequestException;
+import com.movieflex.repositories.MovieRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+// "More like this": the top-K neighbours of every movie by shared cast, director and studio, weighted by
+// how rare the shared value is, plus a bonus for close release years. Built once with fork-join from an
+// inverted index and then patched from cache invalidation events, so lookups are a single map get.
+@Component
+public class SimilarMovieIndex implements CacheInvalidationListener {
+    private static final Logger log = LoggerFactory.getLogger(SimilarMovieIndex.class);
+
+    private static final Set<MovieField> FEATURE_FIELDS = EnumSet.of(MovieField.MOVIE_ID, MovieField.DIRECTOR,
+            MovieField.STUDIO, MovieField.MOVIE_CAST, MovieField.RELEASE_YEAR);
+    private static final float DIRECTOR_WEIGHT = 3f;
+    private static final float CAST_WEIGHT = 2f;
+    private static final float STUDIO_WEIGHT = 1f;
+    private static final float YEAR_WEIGHT = 1f;
+    private static final int YEAR_RANGE = 10;
+    private static final int LOAD_CHUNK = 1000;
+
+    private final MovieRepository movieRepository;
+    private final TransactionTemplate readTransaction;
+    // index maintenance is serialized on this thread, only the neighbour lists are read concurrently
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(r -> new Thread(r, "similar-movie-index"));
+
+    @Value("${project.similar-movies.top-k:20}")
+    private int topK;
+
+    @Value("${project.similar-movies.build-parallelism:0}")
+    private int buildParallelism;
+
+    // values shared by more movies than this only add noise and cost, e.g. a major studio
+    @Value("${project.similar-movies.max-posting-size:10000}")
+    private int maxPostingSize;
+
+    // owned by the updater thread
+    private final Map<String, Integer> tokenIds = new HashMap<>();
+    private Map<Integer, Features> features = new HashMap<>();
+    private Map<Integer, Set<Integer>> postings = new HashMap<>();
+
+    private volatile Map<Integer, Neighbours> neighbours = new ConcurrentHashMap<>();
+
+    public SimilarMovieIndex(MovieRepository movieRepository, PlatformTransactionManager transactionManager) {
+        this.movieRepository = movieRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    public List<Integer> getSimilarIds(Integer movieId, int limit) {
+        if (limit < 1 || limit > topK) {
+            throw new InvalidRequestException("limit must be between 1 and " + topK);
+        }
+        Neighbours entry = neighbours.get(movieId);
+        if (entry == null) {
+            return List.of();
+        }
+        List<Integer> ids = new ArrayList<>(Math.min(limit, entry.ids().length));
+        for (int i = 0; i < entry.ids().length && i < limit; i++) {
+            ids.add(entry.ids()[i]);
+        }
+        return ids;
+    }
+
+    // built off the startup thread, the endpoint returns empty lists until it is done
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        run(this::rebuild);
+    }
+
+    @Override
+    public void invalidate(CacheChangeType type, Set<String> keys, boolean local) {
+        if (type != CacheChangeType.MOVIE) {
+            return;
+        }
+        Set<Integer> movieIds = keys.stream().map(Integer::valueOf).collect(Collectors.toSet());
+        run(() -> update(movieIds));
+    }
+
+    @Override
+    public void invalidateAll() {
+        run(this::rebuild);
+    }
+
+    private void run(Runnable task) {
+        updater.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // the index stays as it was, the next change or rebuild brings it back in line
+                log.error("Similar movie index update failed", e);
+            }
+        });
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        tokenIds.clear();
+        Map<Integer, Features> loaded = new HashMap<>();
+        Integer after = 0;
+        List<Integer> ids;
+        do {
+            Integer from = after;
+            ids = readTransaction.execute(status -> movieRepository.findIdsAfter(from, PageRequest.of(0, LOAD_CHUNK)));
+            for (MovieDto movie : load(ids)) {
+                loaded.put(movie.getMovieId(), toFeatures(movie));
+            }
+            if (!ids.isEmpty()) {
+                after = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == LOAD_CHUNK);
+
+        features = loaded;
+        postings = new HashMap<>();
+        loaded.forEach(this::addPostings);
+
+        List<Integer> movieIds = new ArrayList<>(loaded.keySet());
+        int parallelism = buildParallelism > 0 ? buildParallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            // only reads features and postings, which nothing else touches until the build is done
+            Map<Integer, Neighbours> built = pool.submit(() -> movieIds.parallelStream()
+                    .collect(Collectors.toConcurrentMap(id -> id, this::computeNeighbours))).join();
+            neighbours = new ConcurrentHashMap<>(built);
+        } finally {
+            pool.shutdown();
+        }
+        log.info("Built similar movie index for {} movies in {} ms", movieIds.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void update(Set<Integer> movieIds) {
+        Map<Integer, MovieDto> current = new HashMap<>();
+        for (MovieDto movie : load(movieIds)) {
+            current.put(movie.getMovieId(), movie);
+        }
+        // movies that shared a value with the old or the new version may have to re-rank the changed ones
+        Set<Integer> affected = new HashSet<>();
+        for (Integer movieId : movieIds) {
+            Features old = features.remove(movieId);
+            if (old != null) {
+                affected.addAll(candidates(old));
+                removePostings(movieId, old);
+            }
+            MovieDto movie = current.get(movieId);
+            if (movie == null) {
+                neighbours.remove(movieId);
+                continue;
+            }
+            Features updated = toFeatures(movie);
+            features.put(movieId, updated);
+            addPostings(movieId, updated);
+            affected.addAll(candidates(updated));
+        }
+        affected.addAll(current.keySet());
+        affected.retainAll(features.keySet());
+        for (Integer movieId : affected) {
+            neighbours.put(movieId, computeNeighbours(movieId));
+        }
+        // neighbour lists of movies outside the affected set can still point at a deleted movie
+        for (Integer movieId : movieIds) {
+            if (!current.containsKey(movieId)) {
+                neighbours.replaceAll((id, entry) -> entry.contains(movieId) ? computeNeighbours(id) : entry);
+            }
+        }
+    }
+
+    private List<MovieDto> load(Collection<Integer> movieIds) {
+        // features must reflect the write that triggered the update, a lagging replica would undo it
+        return ReadRouting.onPrimary(() -> readTransaction.execute(status ->
+                movieRepository.findAllProjectedByIds(movieIds, FEATURE_FIELDS)));
+    }
+
+    private Features toFeatures(MovieDto movie) {
+        List<String> tokens = new ArrayList<>();
+        List<Float> weights = new ArrayList<>();
+        tokens.add("d:" + movie.getDirector());
+        weights.add(DIRECTOR_WEIGHT);
+        tokens.add("s:" + movie.getStudio());
+        weights.add(STUDIO_WEIGHT);
+        for (String member : movie.getMovieCast()) {
+            tokens.add("c:" + member);
+            weights.add(CAST_WEIGHT);
+        }
+        int[] ids = new int[tokens.size()];
+        float[] tokenWeights = new float[tokens.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = tokenIds.computeIfAbsent(tokens.get(i), token -> tokenIds.size());
+            tokenWeights[i] = weights.get(i);
+        }
+        return new Features(ids, tokenWeights, movie.getReleaseYear());
+    }
+
+    private void addPostings(Integer movieId, Features movie) {
+        for (int token : movie.tokens()) {
+            postings.computeIfAbsent(token, t -> new HashSet<>()).add(movieId);
+        }
+    }
+
+    private void removePostings(Integer movieId, Features movie) {
+        for (int token : movie.tokens()) {
+            Set<Integer> posting = postings.get(token);
+            if (posting != null) {
+                posting.remove(movieId);
+                if (posting.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    private Set<Integer> candidates(Features movie) {
+        Set<Integer> candidates = new HashSet<>();
+        for (int token : movie.tokens()) {
+            Set<Integer> posting = postings.get(token);
+            if (posting != null && posting.size() <= maxPostingSize) {
+                candidates.addAll(posting);
+            }
+        }
+        return candidates;
+    }
+
+    private Neighbours computeNeighbours(Integer movieId) {
+        Features movie = features.get(movieId);
+        double movieCount = features.size();
+        Map<Integer, Float> scores = new HashMap<>();
+        for (int i = 0; i < movie.tokens().length; i++) {
+            Set<Integer> posting = postings.get(movie.tokens()[i]);
+            if (posting == null || posting.size() < 2 || posting.size() > maxPostingSize) {
+                continue;
+            }
+            // rare values say more than common ones
+            float score = movie.weights()[i] * (float) Math.log(1 + movieCount / posting.size());
+            for (Integer other : posting) {
+                if (!other.equals(movieId)) {
+                    scores.merge(other, score, Float::sum);
+                }
+            }
+        }
+
+        PriorityQueue<Map.Entry<Integer, Float>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+            int yearGap = Math.abs(features.get(entry.getKey()).releaseYear() - movie.releaseYear());
+            if (yearGap < YEAR_RANGE) {
+                entry.setValue(entry.getValue() + YEAR_WEIGHT * (YEAR_RANGE - yearGap) / YEAR_RANGE);
+            }
+            top.offer(entry);
+            if (top.size() > topK) {
+                top.poll();
+            }
+        }
+        int[] ids = new int[top.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = top.poll().getKey();
+        }
+        return new Neighbours(ids);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        updater.shutdownNow();
+    }
+
+    private record Features(int[] tokens, float[] weights, int releaseYear) {
+    }
+
+    private record Neighbours(int[] ids) {
+        boolean contains(int movieId) {
+            for (int id : ids) {
+                if (id == movieId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
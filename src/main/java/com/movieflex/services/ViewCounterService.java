@@ -0,0 +1,221 @@
+package com.movieflex.services;
+
+import com.movieflex.exceptions.InvalidRequestException;
+import com.movieflex.repositories.MovieRepository;
+import com.movieflex.utlis.AppConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Detail views and poster fetches are counted in memory and written behind in batches. The request path
+// only bumps a LongAdder; the flush folds the counts into daily rows and into decayed trending scores.
+@Service
+public class ViewCounterService {
+    private static final Logger log = LoggerFactory.getLogger(ViewCounterService.class);
+
+    private static final String UPSERT_SQL = "insert into movie_view_stats (movie_id, view_date, views) values (?, ?, ?) "
+            + "on duplicate key update views = views + values(views)";
+    private static final String RECENT_SQL = "select movie_id, view_date, views from movie_view_stats where view_date >= ?";
+    private static final String MOST_VIEWED_SQL = "select movie_id from movie_view_stats group by movie_id "
+            + "order by sum(views) desc limit ?";
+    // scores below this are forgotten so the map only holds movies that are still being watched
+    private static final double MIN_SCORE = 0.01;
+    private static final int POSTER_LOOKUP_CHUNK = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MovieRepository movieRepository;
+
+    private final ConcurrentHashMap<Integer, LongAdder> movieViews = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> posterViews = new ConcurrentHashMap<>();
+
+    @Value("${project.view-counters.trending-half-life:P1D}")
+    private Duration trendingHalfLife;
+
+    @Value("${project.view-counters.trending-window:P7D}")
+    private Duration trendingWindow;
+
+    @Value("${project.view-counters.ranking-size:100}")
+    private int rankingSize;
+
+    // flush and rebuild write to the database under this; a lock rather than synchronized, so that with
+    // virtual threads the waiting doesn't pin a carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // owned by flush and rebuild, which hold the lock; readers only see the published rankings
+    private Map<Integer, Double> trendingScores = new HashMap<>();
+    private Instant lastDecay = Instant.now();
+    private volatile List<Integer> trending = List.of();
+    private volatile List<Integer> mostViewed = List.of();
+
+    public ViewCounterService(JdbcTemplate jdbcTemplate, MovieRepository movieRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.movieRepository = movieRepository;
+    }
+
+    public void recordMovieView(Integer movieId) {
+        increment(movieViews, movieId);
+    }
+
+    public void recordPosterView(String fileName) {
+        increment(posterViews, fileName);
+    }
+
+    private static <K> void increment(ConcurrentHashMap<K, LongAdder> counters, K key) {
+        // computeIfAbsent locks the bin even when the key is present, so only fall back to it for new keys
+        LongAdder adder = counters.get(key);
+        if (adder == null) {
+            adder = counters.computeIfAbsent(key, k -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    public List<Integer> getTrendingIds(int limit) {
+        return top(trending, limit);
+    }
+
+    public List<Integer> getMostViewedIds(int limit) {
+        return top(mostViewed, limit);
+    }
+
+    private List<Integer> top(List<Integer> ranking, int limit) {
+        int maxLimit = Math.min(rankingSize, AppConstants.MAX_BATCH_SIZE);
+        if (limit < 1 || limit > maxLimit) {
+            throw new InvalidRequestException("limit must be between 1 and " + maxLimit);
+        }
+        return ranking.subList(0, Math.min(limit, ranking.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${project.view-counters.flush-interval:PT10S}")
+    public void flush() {
+        lock.lock();
+        try {
+            flushLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        Map<Integer, Long> drainedMovies = drain(movieViews);
+        Map<String, Long> drainedPosters = drain(posterViews);
+        if (drainedMovies.isEmpty() && drainedPosters.isEmpty()) {
+            decay(Map.of());
+            return;
+        }
+        Map<Integer, Long> counts;
+        try {
+            counts = withPosterViews(drainedMovies, drainedPosters);
+            write(counts);
+        } catch (RuntimeException e) {
+            // put the counts back, the next flush retries them
+            drainedMovies.forEach((id, views) -> movieViews.computeIfAbsent(id, k -> new LongAdder()).add(views));
+            drainedPosters.forEach((file, views) -> posterViews.computeIfAbsent(file, k -> new LongAdder()).add(views));
+            throw e;
+        }
+        decay(counts);
+    }
+
+    private static <K> Map<K, Long> drain(ConcurrentHashMap<K, LongAdder> counters) {
+        Map<K, Long> drained = new HashMap<>();
+        counters.forEach((key, adder) -> {
+            long views = adder.sumThenReset();
+            if (views > 0) {
+                drained.put(key, views);
+            }
+        });
+        return drained;
+    }
+
+    private Map<Integer, Long> withPosterViews(Map<Integer, Long> movieCounts, Map<String, Long> posterCounts) {
+        // poster fetches only know the file name, resolve them to movies with one IN query per chunk
+        Map<Integer, Long> counts = new HashMap<>(movieCounts);
+        List<String> fileNames = new ArrayList<>(posterCounts.keySet());
+        for (int from = 0; from < fileNames.size(); from += POSTER_LOOKUP_CHUNK) {
+            List<String> chunk = fileNames.subList(from, Math.min(from + POSTER_LOOKUP_CHUNK, fileNames.size()));
+            for (Object[] row : movieRepository.findIdsByPosterIn(chunk)) {
+                counts.merge((Integer) row[1], posterCounts.get((String) row[0]), Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    private void write(Map<Integer, Long> counts) {
+        Date today = Date.valueOf(LocalDate.now(ZoneOffset.UTC));
+        // ordered by id so concurrent flushes from several nodes lock rows in the same order
+        List<Object[]> rows = new ArrayList<>(counts.size());
+        new TreeMap<>(counts).forEach((id, views) -> rows.add(new Object[]{id, today, views}));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    private void decay(Map<Integer, Long> counts) {
+        Instant now = Instant.now();
+        double factor = Math.pow(0.5, Duration.between(lastDecay, now).toMillis() / (double) trendingHalfLife.toMillis());
+        lastDecay = now;
+        trendingScores.replaceAll((id, score) -> score * factor);
+        counts.forEach((id, views) -> trendingScores.merge(id, (double) views, Double::sum));
+        trendingScores.values().removeIf(score -> score < MIN_SCORE);
+        trending = topScores(trendingScores);
+    }
+
+    // Every node only counts its own traffic, so the scores are periodically rebuilt from the daily rows of
+    // all nodes, each day weighted by its age. It also runs at startup to restore the rankings.
+    @Scheduled(fixedDelayString = "${project.view-counters.rebuild-interval:PT5M}")
+    public void rebuild() {
+        lock.lock();
+        try {
+            rebuildLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rebuildLocked() {
+        Instant now = Instant.now();
+        LocalDate from = LocalDate.now(ZoneOffset.UTC).minusDays(trendingWindow.toDays());
+        Map<Integer, Double> scores = new HashMap<>();
+        jdbcTemplate.query(RECENT_SQL, rs -> {
+            // a day's views are taken to be spread evenly over it, so weight them at its midpoint
+            Instant midpoint = rs.getDate("view_date").toLocalDate().atStartOfDay(ZoneOffset.UTC).toInstant().plus(Duration.ofHours(12));
+            double ageInHalfLives = Math.max(0, Duration.between(midpoint, now).toMillis()) / (double) trendingHalfLife.toMillis();
+            scores.merge(rs.getInt("movie_id"), rs.getLong("views") * Math.pow(0.5, ageInHalfLives), Double::sum);
+        }, Date.valueOf(from));
+        scores.values().removeIf(score -> score < MIN_SCORE);
+        trendingScores = scores;
+        lastDecay = now;
+        trending = topScores(scores);
+        mostViewed = List.copyOf(jdbcTemplate.queryForList(MOST_VIEWED_SQL, Integer.class, rankingSize));
+        log.debug("Rebuilt view rankings from {} recently viewed movies", scores.size());
+    }
+
+    private List<Integer> topScores(Map<Integer, Double> scores) {
+        PriorityQueue<Map.Entry<Integer, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > rankingSize) {
+                top.poll();
+            }
+        }
+        List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(top);
+        ranked.sort(Map.Entry.<Integer, Double>comparingByValue(Comparator.reverseOrder()));
+        return ranked.stream().map(Map.Entry::getKey).toList();
+    }
+}
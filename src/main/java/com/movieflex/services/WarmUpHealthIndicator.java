@@ -0,0 +1,23 @@
+package com.movieflex.services;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+// Part of the readiness group only, a node that is still warming up is alive but shouldn't get traffic yet
+@Component
+public class WarmUpHealthIndicator implements HealthIndicator {
+    private final CacheWarmUpService cacheWarmUpService;
+
+    public WarmUpHealthIndicator(CacheWarmUpService cacheWarmUpService) {
+        this.cacheWarmUpService = cacheWarmUpService;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = cacheWarmUpService.isReady() ? Health.up() : Health.outOfService();
+        return builder.withDetail("loaded", cacheWarmUpService.loaded())
+                .withDetail("total", cacheWarmUpService.total())
+                .build();
+    }
+}
@@ -1,8 +1,13 @@
 package com.movieflex.utlis;
 
+import java.util.List;
+
 public class AppConstants {
     public static final String PAGE_NUMBER = "0";
     public static final String PAGE_SIZE = "3";
     public static final String SORT_BY = "movieId";
     public static final String SORT_DIR = "asc";
+    public static final int MAX_BATCH_SIZE = 100;
+    // the primary key and the columns indexed in V2
+    public static final List<String> SORTABLE_FIELDS = List.of("movieId", "title", "releaseYear", "director", "studio");
 }
@@ -0,0 +1,77 @@
+package com.movieflex.utlis;
+
+import com.movieflex.exceptions.LoadTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Collapses concurrent loads of the same key into one: the first caller runs the loader on its own thread
+// and everyone arriving while it runs waits for that result. Entries only live while a load is in flight,
+// so the map never grows past the number of keys being loaded at the same moment.
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long waitTimeoutNanos;
+
+    public SingleFlight(Duration waitTimeout) {
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+    }
+
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return await(key, existing);
+        }
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            // only our own entry, a forget() may already have let a newer load take the key
+            inFlight.remove(key, call);
+        }
+    }
+
+    // later callers start a fresh load instead of joining one that may have read data older than a write
+    public void forget(Predicate<? super K> keys) {
+        inFlight.keySet().removeIf(keys);
+    }
+
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(K key, CompletableFuture<V> call) {
+        try {
+            return call.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new LoadTimeoutException("Timed out waiting for a concurrent load of " + key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoadTimeoutException("Interrupted while waiting for a concurrent load of " + key);
+        } catch (ExecutionException e) {
+            // the waiters see the same failure as the caller that ran the load, e.g. a 404
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
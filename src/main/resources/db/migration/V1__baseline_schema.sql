@@ -0,0 +1,46 @@
+-- Schema exactly as previously created by ddl-auto: update, including Hibernate's constraint names.
+-- Databases that were created that way are baselined at this version and only receive the migrations
+-- that follow, so anything added since belongs in those. users.email is indexed by its unique constraint
+-- and movie_cast.movie_movie_id by the index MySQL creates for its foreign key.
+create table movie (
+    movie_id integer not null auto_increment,
+    director varchar(255) not null,
+    poster varchar(255) not null,
+    release_year integer not null,
+    studio varchar(255) not null,
+    title varchar(200) not null,
+    primary key (movie_id)
+) engine=InnoDB;
+
+create table movie_cast (
+    movie_movie_id integer not null,
+    movie_cast varchar(255)
+) engine=InnoDB;
+
+create table refresh_token (
+    token_id integer not null auto_increment,
+    expiration_time datetime(6) not null,
+    refresh_token varchar(500) not null,
+    user_id integer,
+    primary key (token_id)
+) engine=InnoDB;
+
+create table users (
+    id integer not null auto_increment,
+    email varchar(255) not null,
+    is_account_non_expired bit not null,
+    is_account_non_locked bit not null,
+    is_credentials_non_expired bit not null,
+    is_enabled bit not null,
+    name varchar(255) not null,
+    password varchar(255) not null,
+    role enum ('ADMIN','USER'),
+    username varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table refresh_token add constraint UKf95ixxe7pa48ryn1awmh2evt7 unique (user_id);
+alter table users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+alter table users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+alter table movie_cast add constraint FKlmid3ji0uvapkxvx5nf9r06bg foreign key (movie_movie_id) references movie (movie_id);
+alter table refresh_token add constraint FKjtx87i0jvq2svedphegvdwcuy foreign key (user_id) references users (id);
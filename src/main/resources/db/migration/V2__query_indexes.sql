@@ -0,0 +1,23 @@
+-- poster deletes queued in the same transaction as the movie change, drained by the poster worker
+create table poster_job (
+    job_id bigint not null auto_increment,
+    type enum ('DELETE') not null,
+    file_name varchar(255) not null,
+    attempts integer not null,
+    next_attempt_at datetime(6) not null,
+    created_at datetime(6) not null,
+    last_error varchar(500),
+    primary key (job_id)
+) engine=InnoDB;
+
+-- refresh token lookups on /auth/refresh
+create index idx_refresh_token_value on refresh_token (refresh_token);
+
+-- sortable columns of /movies/allMoviesPageSort
+create index idx_movie_title on movie (title);
+create index idx_movie_release_year on movie (release_year);
+create index idx_movie_director on movie (director);
+create index idx_movie_studio on movie (studio);
+
+-- due job polling of the poster worker
+create index idx_poster_job_due on poster_job (attempts, next_attempt_at);
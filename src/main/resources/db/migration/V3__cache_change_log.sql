@@ -0,0 +1,11 @@
+-- cross-node cache invalidation log, tailed by sequence number and pruned by age
+create table cache_change (
+    seq bigint not null auto_increment,
+    type enum ('MOVIE','USER') not null,
+    entity_key varchar(255) not null,
+    node_id varchar(64) not null,
+    created_at datetime(6) not null,
+    primary key (seq)
+) engine=InnoDB;
+
+create index idx_cache_change_created_at on cache_change (created_at);
@@ -0,0 +1,10 @@
+-- daily view counts, written in batches by the view counter flush
+create table movie_view_stats (
+    movie_id integer not null,
+    view_date date not null,
+    views bigint not null,
+    primary key (movie_id, view_date)
+) engine=InnoDB;
+
+-- trending rebuilds read recent days only
+create index idx_movie_view_stats_date on movie_view_stats (view_date);
@@ -0,0 +1,2 @@
+-- poster files replaced or deleted in a shared object store, evicted from the nodes' disk caches
+alter table cache_change modify type enum ('MOVIE','USER','POSTER') not null;
@@ -0,0 +1,31 @@
+-- Cast members are stored once and shared between movies instead of as a name per movie row.
+-- Names are compared byte for byte, so spellings that only differ in case stay separate people.
+create table person (
+    person_id integer not null auto_increment,
+    name varchar(255) collate utf8mb4_bin not null,
+    primary key (person_id),
+    constraint uk_person_name unique (name)
+) engine=InnoDB;
+
+-- indexed both ways: a movie's cast, and the movies of a person for /movies/cast/{name}
+create table movie_person (
+    movie_id integer not null,
+    person_id integer not null,
+    primary key (movie_id, person_id),
+    key idx_movie_person_person (person_id, movie_id),
+    constraint fk_movie_person_movie foreign key (movie_id) references movie (movie_id),
+    constraint fk_movie_person_person foreign key (person_id) references person (person_id)
+) engine=InnoDB;
+
+-- same collation as person.name so the copy below doesn't merge names that only differ in case
+alter table movie_cast modify movie_cast varchar(255) collate utf8mb4_bin;
+
+insert into person (name)
+select distinct movie_cast from movie_cast where movie_cast is not null;
+
+insert into movie_person (movie_id, person_id)
+select distinct c.movie_movie_id, p.person_id
+from movie_cast c
+join person p on p.name = c.movie_cast;
+
+drop table movie_cast;
@@ -0,0 +1,6 @@
+-- the poster worker locks the movies referencing a file before deleting it; without an index the
+-- locking read would scan and lock the whole movie table
+create index idx_movie_poster on movie (poster);
+
+-- the orphan sweep skips files that already have a pending or exhausted job
+create index idx_poster_job_file_name on poster_job (file_name);
@@ -0,0 +1,287 @@
+package com.movieflex.reactive;
+
+import com.movieflex.auth.services.JwtService;
+import com.movieflex.dto.MovieDto;
+import com.movieflex.dto.MovieField;
+import com.movieflex.dto.MoviePageResponse;
+import com.movieflex.exceptions.InvalidRequestException;
+import com.movieflex.exceptions.MovieNoteFoundException;
+import com.movieflex.services.FileService;
+import com.movieflex.services.HotKeyTracker;
+import com.movieflex.services.MoviePageCache;
+import com.movieflex.services.MovieServiceImpl;
+import com.movieflex.services.ViewCounterService;
+import com.movieflex.utlis.AppConstants;
+import io.jsonwebtoken.JwtException;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.NotAcceptableStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.FileNotFoundException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// The read endpoints of MovieController and FileController on the reactive stack, with the same
+// responses in JSON, CBOR or Smile, JWT check, page validation, page cache and view counting. Nothing
+// here blocks the event loop except the S3 client, whose poster streams are opened and read on the
+// boundedElastic scheduler.
+public class ReactiveMovieHandler {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveMovieHandler.class);
+
+    private static final int POSTER_BUFFER_SIZE = 64 * 1024;
+
+    // what the servlet path's Jackson converters produce, in their order, so */* and no Accept are JSON
+    private static final List<MediaType> BODY_TYPES = List.of(MediaType.APPLICATION_JSON,
+            new MediaType("application", "x-jackson-smile"), MediaType.APPLICATION_CBOR);
+
+    private final ReactiveMovieRepository movieRepository;
+
+    private final MoviePageCache moviePageCache;
+
+    private final ViewCounterService viewCounterService;
+
+    private final HotKeyTracker hotKeyTracker;
+
+    private final JwtService jwtService;
+
+    private final FileService fileService;
+
+    // null unless posters are stored locally, which are then read without a blocking stream
+    private final Path posterDirectory;
+
+    private final String baseUrl;
+
+    private final String retryAfterSeconds;
+
+    public ReactiveMovieHandler(ReactiveMovieRepository movieRepository, MoviePageCache moviePageCache,
+                                ViewCounterService viewCounterService, HotKeyTracker hotKeyTracker,
+                                JwtService jwtService, FileService fileService, Path posterDirectory,
+                                String baseUrl, String retryAfterSeconds) {
+        this.movieRepository = movieRepository;
+        this.moviePageCache = moviePageCache;
+        this.viewCounterService = viewCounterService;
+        this.hotKeyTracker = hotKeyTracker;
+        this.jwtService = jwtService;
+        this.fileService = fileService;
+        this.posterDirectory = posterDirectory;
+        this.baseUrl = baseUrl;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Mono<ServerResponse> getMovie(ServerRequest request) {
+        Integer movieId = Integer.valueOf(request.pathVariable("movieId"));
+        Set<MovieField> fields = MovieField.parse(request.queryParam("fields").orElse(null));
+        hotKeyTracker.recordMovie(movieId);
+        return movieRepository.findById(movieId, queried(fields))
+                .switchIfEmpty(Mono.error(() -> new MovieNoteFoundException("Movie not found with id : " + movieId)))
+                .map(movie -> withPosterUrl(movie, queried(fields)))
+                .doOnNext(movie -> viewCounterService.recordMovieView(movieId))
+                .flatMap(movie -> ServerResponse.ok().contentType(bodyType(request)).bodyValue(movie));
+    }
+
+    public Mono<ServerResponse> getPage(ServerRequest request) {
+        Integer pageNumber = intParam(request, "pageNumber", AppConstants.PAGE_NUMBER);
+        Integer pageSize = intParam(request, "pageSize", AppConstants.PAGE_SIZE);
+        Set<MovieField> fields = MovieField.parse(request.queryParam("fields").orElse(null));
+        Pageable pageable = MovieServiceImpl.pageRequest(pageNumber, pageSize, null, null);
+        hotKeyTracker.recordPage(pageNumber, pageSize, null, null, fields);
+        return page(request, cachedPage(pageNumber, pageSize, null, null, fields, pageable));
+    }
+
+    public Mono<ServerResponse> getSortedPage(ServerRequest request) {
+        Integer pageNumber = intParam(request, "pageNumber", AppConstants.PAGE_NUMBER);
+        Integer pageSize = intParam(request, "pageSize", AppConstants.PAGE_SIZE);
+        String sortBy = request.queryParam("sortBy").orElse(AppConstants.SORT_BY);
+        String sortDirection = request.queryParam("sortDirection").orElse(AppConstants.SORT_DIR);
+        Set<MovieField> fields = MovieField.parse(request.queryParam("fields").orElse(null));
+        Pageable pageable = MovieServiceImpl.pageRequest(pageNumber, pageSize, sortBy, sortDirection);
+        String direction = MovieServiceImpl.sortDirection(sortDirection).name().toLowerCase();
+        hotKeyTracker.recordPage(pageNumber, pageSize, sortBy, direction, fields);
+        return page(request, cachedPage(pageNumber, pageSize, sortBy, direction, fields, pageable));
+    }
+
+    public Mono<ServerResponse> getPoster(ServerRequest request) {
+        String fileName = request.pathVariable("fileName");
+        DataBufferFactory bufferFactory = request.exchange().getResponse().bufferFactory();
+        Mono<Flux<DataBuffer>> poster;
+        if (posterDirectory != null) {
+            hotKeyTracker.recordPoster(fileName);
+            Path file = posterDirectory.resolve(fileName).normalize();
+            if (!posterDirectory.equals(file.getParent()) || !Files.isRegularFile(file)) {
+                return Mono.error(new FileNotFoundException(fileName));
+            }
+            poster = Mono.just(DataBufferUtils.read(file, bufferFactory, POSTER_BUFFER_SIZE));
+        } else {
+            // opened before the response is started, so an unknown poster is still a 404
+            poster = Mono.fromCallable(() -> fileService.getResourceFile(fileName))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .map(in -> DataBufferUtils.readInputStream(() -> in, bufferFactory, POSTER_BUFFER_SIZE)
+                            .subscribeOn(Schedulers.boundedElastic()));
+        }
+        return poster.flatMap(body -> ServerResponse.ok()
+                .contentType(MediaType.IMAGE_PNG)
+                .body(BodyInserters.fromDataBuffers(
+                        body.doOnComplete(() -> viewCounterService.recordPosterView(fileName)))));
+    }
+
+    // the JWT check of AuthFilterService; anything without a valid token for an existing user gets the
+    // 403 Spring Security answers unauthenticated requests with
+    public Mono<ServerResponse> authenticate(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        String authHeader = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ServerResponse.status(HttpStatus.FORBIDDEN).build();
+        }
+        String username;
+        try {
+            // verifies the signature and the expiry
+            username = jwtService.extractUsername(authHeader.substring(7));
+        } catch (JwtException | IllegalArgumentException e) {
+            return ServerResponse.status(HttpStatus.FORBIDDEN).build();
+        }
+        return movieRepository.userExists(username)
+                .flatMap(exists -> exists ? next.handle(request) : ServerResponse.status(HttpStatus.FORBIDDEN).build());
+    }
+
+    // the mappings of GlobalExceptionHandler
+    public Mono<ServerResponse> handleErrors(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        return Mono.defer(() -> next.handle(request)).onErrorResume(e -> {
+            if (e instanceof MovieNoteFoundException) {
+                return problem(request, HttpStatus.NOT_FOUND, e.getMessage());
+            }
+            if (e instanceof InvalidRequestException) {
+                return problem(request, HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+            if (e instanceof NumberFormatException) {
+                return problem(request, HttpStatus.BAD_REQUEST, "Invalid number : " + e.getMessage());
+            }
+            if (e instanceof FileNotFoundException) {
+                return problem(request, HttpStatus.NOT_FOUND, "File not found : " + e.getMessage());
+            }
+            // none of the formats is acceptable
+            if (e instanceof NotAcceptableStatusException) {
+                return ServerResponse.status(HttpStatus.NOT_ACCEPTABLE).build();
+            }
+            // no connection free within max-acquire-time, the same answer as a shed request
+            if (timedOut(e)) {
+                return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds)
+                        .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                        .bodyValue(problemDetail(request, HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+            }
+            log.error("Reactive read of {} failed", request.path(), e);
+            return problem(request, HttpStatus.INTERNAL_SERVER_ERROR, null);
+        });
+    }
+
+    // DatabaseClient wraps a failed connection acquisition in a DataAccessResourceFailureException
+    private static boolean timedOut(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof R2dbcTimeoutException || cause instanceof QueryTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the cache key is taken when the page is subscribed to, and only a miss runs the queries
+    private Mono<MoviePageResponse> cachedPage(Integer pageNumber, Integer pageSize, String sortBy, String direction,
+                                               Set<MovieField> fields, Pageable pageable) {
+        return Mono.fromCompletionStage(() -> moviePageCache.getAsync(pageNumber, pageSize, sortBy, direction, fields,
+                () -> loadPage(pageable, fields).toFuture()));
+    }
+
+    private Mono<MoviePageResponse> loadPage(Pageable pageable, Set<MovieField> fields) {
+        Set<MovieField> queried = queried(fields);
+        return movieRepository.findPage(queried, pageable)
+                .flatMap(movies -> total(movies, pageable).map(total -> {
+                    movies.forEach(movie -> withPosterUrl(movie, queried));
+                    int totalPages = (int) Math.ceil((double) total / pageable.getPageSize());
+                    return new MoviePageResponse(movies, pageable.getPageNumber(), pageable.getPageSize(), total,
+                            totalPages, pageable.getPageNumber() + 1 >= totalPages);
+                }));
+    }
+
+    // the count query is skipped when the page alone tells us the total, like PageableExecutionUtils
+    private Mono<Long> total(List<MovieDto> movies, Pageable pageable) {
+        if (movies.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !movies.isEmpty())) {
+            return Mono.just(pageable.getOffset() + movies.size());
+        }
+        return movieRepository.count();
+    }
+
+    private static Mono<ServerResponse> page(ServerRequest request, Mono<MoviePageResponse> page) {
+        return page.flatMap(response -> ServerResponse.ok().contentType(bodyType(request)).bodyValue(response));
+    }
+
+    // functional endpoints write with the first codec that takes the body and don't look at Accept, so the
+    // format is negotiated here the way the servlet path's content negotiation does it
+    private static MediaType bodyType(ServerRequest request) {
+        List<MediaType> accepted = new ArrayList<>(request.headers().accept());
+        if (accepted.isEmpty()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType acceptedType : accepted) {
+            for (MediaType bodyType : BODY_TYPES) {
+                if (acceptedType.isCompatibleWith(bodyType)) {
+                    return bodyType;
+                }
+            }
+        }
+        throw new NotAcceptableStatusException(BODY_TYPES);
+    }
+
+    // a full movie is every field
+    private static Set<MovieField> queried(Set<MovieField> fields) {
+        return fields == null ? EnumSet.allOf(MovieField.class) : fields;
+    }
+
+    private MovieDto withPosterUrl(MovieDto movie, Set<MovieField> fields) {
+        if (fields.contains(MovieField.POSTER_URL)) {
+            movie.setPosterUrl(baseUrl + "/file/" + movie.getPoster());
+        }
+        if (!fields.contains(MovieField.POSTER)) {
+            movie.setPoster(null);
+        }
+        return movie;
+    }
+
+    private static Integer intParam(ServerRequest request, String name, String defaultValue) {
+        return Integer.valueOf(request.queryParam(name).orElse(defaultValue));
+    }
+
+    private static Mono<ServerResponse> problem(ServerRequest request, HttpStatus status, String detail) {
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .bodyValue(problemDetail(request, status, detail));
+    }
+
+    private static ProblemDetail problemDetail(ServerRequest request, HttpStatus status, String detail) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(status, detail);
+        problemDetail.setInstance(URI.create(request.path()));
+        return problemDetail;
+    }
+}
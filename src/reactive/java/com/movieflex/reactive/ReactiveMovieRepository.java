@@ -0,0 +1,132 @@
+package com.movieflex.reactive;
+
+import com.movieflex.dto.MovieDto;
+import com.movieflex.dto.MovieField;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Readable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// The reads of MovieRepositoryImpl over R2DBC. Only the columns of the requested fields are selected, and
+// movie_person and person are only touched when the cast was asked for, with one IN query per page.
+public class ReactiveMovieRepository {
+    // sortable properties, already checked against AppConstants.SORTABLE_FIELDS, and their columns
+    private static final Map<String, String> COLUMNS = Map.of(
+            "movieId", "movie_id",
+            "title", "title",
+            "releaseYear", "release_year",
+            "director", "director",
+            "studio", "studio");
+
+    private final ConnectionPool connectionPool;
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveMovieRepository(ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+        this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    public void close() {
+        connectionPool.dispose();
+    }
+
+    public Mono<MovieDto> findById(Integer movieId, Set<MovieField> fields) {
+        return databaseClient.sql("select " + columnsFor(fields) + " from movie where movie_id = :movieId")
+                .bind("movieId", movieId)
+                .map(row -> toMovieDto(row, fields))
+                .all()
+                .collectList()
+                .flatMap(movies -> withCasts(movies, fields))
+                .flatMap(movies -> Mono.justOrEmpty(movies.stream().findFirst()));
+    }
+
+    // an unsorted page is read in primary key order, the order the servlet path gets from InnoDB
+    public Mono<List<MovieDto>> findPage(Set<MovieField> fields, Pageable pageable) {
+        StringBuilder sql = new StringBuilder("select ").append(columnsFor(fields)).append(" from movie order by ");
+        if (pageable.getSort().isSorted()) {
+            List<String> orders = new ArrayList<>();
+            for (Sort.Order order : pageable.getSort()) {
+                orders.add(COLUMNS.get(order.getProperty()) + (order.isAscending() ? " asc" : " desc"));
+            }
+            sql.append(String.join(", ", orders));
+        } else {
+            sql.append("movie_id");
+        }
+        sql.append(" limit :limit offset :offset");
+        return databaseClient.sql(sql.toString())
+                .bind("limit", pageable.getPageSize())
+                .bind("offset", pageable.getOffset())
+                .map(row -> toMovieDto(row, fields))
+                .all()
+                .collectList()
+                .flatMap(movies -> withCasts(movies, fields));
+    }
+
+    public Mono<Long> count() {
+        return databaseClient.sql("select count(*) from movie")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<Boolean> userExists(String email) {
+        return databaseClient.sql("select id from users where email = :email")
+                .bind("email", email)
+                .map(row -> row.get(0, Integer.class))
+                .first()
+                .hasElement();
+    }
+
+    private Mono<List<MovieDto>> withCasts(List<MovieDto> movies, Set<MovieField> fields) {
+        if (!fields.contains(MovieField.MOVIE_CAST) || movies.isEmpty()) {
+            return Mono.just(movies);
+        }
+        Map<Integer, MovieDto> byId = new LinkedHashMap<>();
+        for (MovieDto movie : movies) {
+            movie.setMovieCast(new HashSet<>());
+            byId.put(movie.getMovieId(), movie);
+        }
+        Flux<Object[]> rows = databaseClient.sql("select mp.movie_id, p.name from movie_person mp "
+                        + "join person p on p.person_id = mp.person_id where mp.movie_id in (:movieIds)")
+                .bind("movieIds", byId.keySet())
+                .map(row -> new Object[]{row.get(0, Integer.class), row.get(1, String.class)})
+                .all();
+        return rows.doOnNext(row -> byId.get((Integer) row[0]).getMovieCast().add((String) row[1]))
+                .then(Mono.just(movies));
+    }
+
+    private static String columnsFor(Set<MovieField> fields) {
+        List<String> columns = new ArrayList<>();
+        columns.add("movie_id");
+        if (fields.contains(MovieField.TITLE)) columns.add("title");
+        if (fields.contains(MovieField.DIRECTOR)) columns.add("director");
+        if (fields.contains(MovieField.STUDIO)) columns.add("studio");
+        if (fields.contains(MovieField.RELEASE_YEAR)) columns.add("release_year");
+        // the poster url is derived from the poster file name
+        if (fields.contains(MovieField.POSTER) || fields.contains(MovieField.POSTER_URL)) columns.add("poster");
+        return String.join(", ", columns);
+    }
+
+    private static MovieDto toMovieDto(Readable row, Set<MovieField> fields) {
+        MovieDto dto = new MovieDto();
+        dto.setMovieId(row.get("movie_id", Integer.class));
+        if (fields.contains(MovieField.TITLE)) dto.setTitle(row.get("title", String.class));
+        if (fields.contains(MovieField.DIRECTOR)) dto.setDirector(row.get("director", String.class));
+        if (fields.contains(MovieField.STUDIO)) dto.setStudio(row.get("studio", String.class));
+        if (fields.contains(MovieField.RELEASE_YEAR)) dto.setReleaseYear(row.get("release_year", Integer.class));
+        if (fields.contains(MovieField.POSTER) || fields.contains(MovieField.POSTER_URL)) {
+            dto.setPoster(row.get("poster", String.class));
+        }
+        return dto;
+    }
+}
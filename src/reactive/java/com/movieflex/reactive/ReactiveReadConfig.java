@@ -0,0 +1,116 @@
+package com.movieflex.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movieflex.auth.services.JwtService;
+import com.movieflex.services.FileService;
+import com.movieflex.services.HotKeyTracker;
+import com.movieflex.services.MoviePageCache;
+import com.movieflex.services.ViewCounterService;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.MimeType;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+// The read endpoints a thread-per-request server spends most of its threads waiting in, served again by
+// WebFlux on Reactor Netty and R2DBC on project.reactive.port. Writes, auth and everything else stay on
+// Tomcat; the load balancer sends GETs of these paths to this port once it is enabled.
+@Configuration
+@ConditionalOnProperty(name = "project.reactive.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReactiveReadProperties.class)
+public class ReactiveReadConfig {
+
+    // the pool is no bean of its own: any ConnectionFactory bean makes Boot back off from the JDBC DataSource
+    @Bean(destroyMethod = "close")
+    public ReactiveMovieRepository reactiveMovieRepository(ReactiveReadProperties properties) {
+        ReactiveReadProperties.R2dbc r2dbc = properties.r2dbc();
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbc.url()).mutate();
+        if (r2dbc.username() != null) {
+            options.option(ConnectionFactoryOptions.USER, r2dbc.username());
+        }
+        if (r2dbc.password() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, r2dbc.password());
+        }
+        return new ReactiveMovieRepository(new ConnectionPool(
+                ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                        .name("reactive")
+                        .initialSize(0)
+                        .maxSize(r2dbc.maxSize())
+                        .maxAcquireTime(r2dbc.maxAcquireTime())
+                        .build()));
+    }
+
+    @Bean
+    public ReactiveMovieHandler reactiveMovieHandler(ReactiveMovieRepository reactiveMovieRepository,
+                                                     MoviePageCache moviePageCache,
+                                                     ViewCounterService viewCounterService,
+                                                     HotKeyTracker hotKeyTracker, JwtService jwtService,
+                                                     FileService fileService,
+                                                     @Value("${project.storage.type:local}") String storageType,
+                                                     @Value("${project.poster}") String posterPath,
+                                                     @Value("${base.url}") String baseUrl,
+                                                     @Value("${admission.retry-after-seconds:1}") String retryAfterSeconds) {
+        Path posterDirectory = "local".equals(storageType) ? Path.of(posterPath).toAbsolutePath().normalize() : null;
+        return new ReactiveMovieHandler(reactiveMovieRepository, moviePageCache, viewCounterService, hotKeyTracker,
+                jwtService, fileService, posterDirectory, baseUrl, retryAfterSeconds);
+    }
+
+    @Bean
+    public ReactiveReadServer reactiveReadServer(ReactiveMovieHandler handler, ObjectMapper objectMapper,
+                                                 ReactiveReadProperties properties,
+                                                 @Value("${server.compression.min-response-size:2KB}") DataSize minCompressedSize) {
+        RouterFunction<ServerResponse> routes = RouterFunctions.route()
+                .GET("/movies/allMoviesPage", handler::getPage)
+                .GET("/movies/allMoviesPageSort", handler::getSortedPage)
+                .GET("/movies/{movieId:[0-9]+}", handler::getMovie)
+                .GET("/file/{fileName}", handler::getPoster)
+                .filter(handler::handleErrors)
+                .filter(handler::authenticate)
+                .build();
+        // Boot's ObjectMapper, so responses are written exactly as on the servlet path. Smile and CBOR are
+        // written with the same default mappers as Spring MVC's converters, but only Smile is a default codec.
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                    codecs.customCodecs().register(new SingleValueCborEncoder());
+                })
+                .build();
+        return new ReactiveReadServer(RouterFunctions.toHttpHandler(routes, strategies), properties.port(),
+                minCompressedSize.toBytes());
+    }
+
+    // Jackson2CborEncoder only encodes single values, and the message writer asks even a Mono for a stream
+    private static class SingleValueCborEncoder extends Jackson2CborEncoder {
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            return Mono.from(inputStream)
+                    .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints))
+                    .flux();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.movieflex.reactive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+// the r2dbc url points at the primary or at a replica, reads on this path are never routed
+@ConfigurationProperties("project.reactive")
+public record ReactiveReadProperties(boolean enabled,
+                                     @DefaultValue("8081") int port,
+                                     @DefaultValue R2dbc r2dbc) {
+
+    // a request that can't get a connection within maxAcquireTime is shed with a 503
+    public record R2dbc(@DefaultValue("r2dbc:mysql://localhost:3306/movies") String url,
+                        String username,
+                        String password,
+                        @DefaultValue("20") int maxSize,
+                        @DefaultValue("PT2S") Duration maxAcquireTime) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.movieflex.reactive;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+// Reactor Netty server of the reactive read path, started and stopped with the context next to Tomcat
+public class ReactiveReadServer implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveReadServer.class);
+
+    private final HttpHandler httpHandler;
+
+    private final int port;
+
+    private final long minCompressedSize;
+
+    private volatile DisposableServer server;
+
+    public ReactiveReadServer(HttpHandler httpHandler, int port, long minCompressedSize) {
+        this.httpHandler = httpHandler;
+        this.port = port;
+        this.minCompressedSize = minCompressedSize;
+    }
+
+    @Override
+    public void start() {
+        server = HttpServer.create()
+                .port(port)
+                .compress((request, response) -> compressible(response))
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        log.info("Reactive read path listening on port {}", server.port());
+    }
+
+    // like server.compression: JSON only, posters are already compressed images
+    private boolean compressible(HttpServerResponse response) {
+        String contentType = response.responseHeaders().get(HttpHeaderNames.CONTENT_TYPE);
+        if (contentType == null || !contentType.contains("json")) {
+            return false;
+        }
+        return response.responseHeaders().getInt(HttpHeaderNames.CONTENT_LENGTH, Integer.MAX_VALUE) >= minCompressedSize;
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer running = server;
+        if (running != null) {
+            running.disposeNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
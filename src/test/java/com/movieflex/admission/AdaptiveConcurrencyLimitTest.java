@@ -0,0 +1,69 @@
+package com.movieflex.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+    private static final long FAST = TimeUnit.MICROSECONDS.toNanos(500);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 100, 2.0, 0.5, 1000);
+
+    @Test
+    void slowRequestsDontShrinkALimitFarFromUsed() {
+        complete(1, FAST, false);
+        for (int i = 0; i < 50; i++) {
+            complete(1, SLOW, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void slowRequestsAtTheLimitBackOff() {
+        complete(1, FAST, false);
+        complete(20, SLOW, false);
+
+        assertThat(limit.getLimit()).isLessThan(20);
+    }
+
+    @Test
+    void droppedRequestsBackOffEvenWhenIdle() {
+        complete(1, FAST, true);
+
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void fastRequestsAtTheLimitGrowIt() {
+        complete(20, FAST, false);
+
+        assertThat(limit.getLimit()).isGreaterThan(20);
+    }
+
+    @Test
+    void requestsBeyondTheLimitAreRejected() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(20);
+    }
+
+    // runs inFlight requests at once and completes them all with the same round trip time, at most one
+    // backoff is allowed per round trip so the samples are spaced by it
+    private void complete(int inFlight, long rttNanos, boolean dropped) {
+        for (int i = 0; i < inFlight; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        for (int i = 0; i < inFlight; i++) {
+            LockSupport.parkNanos(rttNanos);
+            limit.release(rttNanos, dropped);
+        }
+    }
+}
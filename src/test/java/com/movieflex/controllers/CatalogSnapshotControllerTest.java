@@ -0,0 +1,46 @@
+package com.movieflex.controllers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotControllerTest {
+
+    @Test
+    void parsesASingleByteRange() {
+        assertThat(CatalogSnapshotController.parseRange("bytes=0-99", 1000)).containsExactly(0, 100);
+        assertThat(CatalogSnapshotController.parseRange("bytes=100-", 1000)).containsExactly(100, 1000);
+        assertThat(CatalogSnapshotController.parseRange("bytes= 5 - 9 ", 1000)).containsExactly(5, 10);
+    }
+
+    @Test
+    void clampsTheEndToTheFile() {
+        assertThat(CatalogSnapshotController.parseRange("bytes=900-5000", 1000)).containsExactly(900, 1000);
+        assertThat(CatalogSnapshotController.parseRange("bytes=999-999", 1000)).containsExactly(999, 1000);
+    }
+
+    @Test
+    void parsesSuffixRanges() {
+        assertThat(CatalogSnapshotController.parseRange("bytes=-100", 1000)).containsExactly(900, 1000);
+        // more than the file is the whole file
+        assertThat(CatalogSnapshotController.parseRange("bytes=-5000", 1000)).containsExactly(0, 1000);
+    }
+
+    @Test
+    void rejectsRangesOutsideTheFile() {
+        assertThat(CatalogSnapshotController.parseRange("bytes=1000-", 1000)).isNull();
+        assertThat(CatalogSnapshotController.parseRange("bytes=2000-3000", 1000)).isNull();
+        assertThat(CatalogSnapshotController.parseRange("bytes=-0", 1000)).isNull();
+        assertThat(CatalogSnapshotController.parseRange("bytes=-10", 0)).isNull();
+    }
+
+    @Test
+    void sendsTheWholeFileForWhatItDoesntHandle() {
+        // multiple ranges, other units, reversed or malformed ranges
+        assertThat(CatalogSnapshotController.parseRange("bytes=0-1,5-6", 1000)).isEmpty();
+        assertThat(CatalogSnapshotController.parseRange("items=0-1", 1000)).isEmpty();
+        assertThat(CatalogSnapshotController.parseRange("bytes=50-10", 1000)).isEmpty();
+        assertThat(CatalogSnapshotController.parseRange("bytes=abc-", 1000)).isEmpty();
+        assertThat(CatalogSnapshotController.parseRange("bytes=10", 1000)).isEmpty();
+    }
+}
@@ -0,0 +1,122 @@
+package com.movieflex.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new AccessLogBuffer(4, AccessLogBuffer.OverflowPolicy.DROP).capacity()).isEqualTo(4);
+        assertThat(new AccessLogBuffer(5, AccessLogBuffer.OverflowPolicy.DROP).capacity()).isEqualTo(8);
+        assertThat(new AccessLogBuffer(8192, AccessLogBuffer.OverflowPolicy.DROP).capacity()).isEqualTo(8192);
+    }
+
+    @Test
+    void eventsComeOutInOrderAcrossManyLaps() {
+        AccessLogBuffer buffer = new AccessLogBuffer(4, AccessLogBuffer.OverflowPolicy.DROP);
+        int next = 0;
+        for (int lap = 0; lap < 10; lap++) {
+            // three at a time through four slots, so every lap starts at a different slot
+            for (int i = 0; i < 3; i++) {
+                assertThat(buffer.offer(lap * 3 + i, "GET", "/movies/" + (lap * 3 + i), 200, 1, 2, -1)).isTrue();
+            }
+            for (int i = 0; i < 3; i++) {
+                assertThat(drainOne(buffer)).isEqualTo(next++);
+            }
+        }
+        Integer remaining;
+        while ((remaining = drainOneOrNull(buffer)) != null) {
+            assertThat(remaining).isEqualTo(next++);
+        }
+        assertThat(next).isEqualTo(30);
+        assertThat(buffer.dropped()).isZero();
+    }
+
+    @Test
+    void dropPolicyCountsWhatDoesntFit() {
+        AccessLogBuffer buffer = new AccessLogBuffer(4, AccessLogBuffer.OverflowPolicy.DROP);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i, "GET", "/", 200, 0, 0, -1)).isTrue();
+        }
+        assertThat(buffer.offer(4, "GET", "/", 200, 0, 0, -1)).isFalse();
+        assertThat(buffer.offer(5, "GET", "/", 200, 0, 0, -1)).isFalse();
+        assertThat(buffer.dropped()).isEqualTo(2);
+
+        // a freed slot is usable again
+        assertThat(drainOne(buffer)).isZero();
+        assertThat(buffer.offer(6, "GET", "/", 200, 0, 0, -1)).isTrue();
+    }
+
+    @Test
+    void blockPolicyWaitsForTheWriter() throws Exception {
+        AccessLogBuffer buffer = new AccessLogBuffer(4, AccessLogBuffer.OverflowPolicy.BLOCK);
+        for (int i = 0; i < 4; i++) {
+            buffer.offer(i, "GET", "/", 200, 0, 0, -1);
+        }
+
+        CompletableFuture<Boolean> blocked = CompletableFuture.supplyAsync(() -> buffer.offer(4, "GET", "/", 200, 0, 0, -1));
+        Thread.sleep(100);
+        assertThat(blocked).isNotDone();
+
+        assertThat(drainOne(buffer)).isZero();
+        assertThat(blocked.get(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i <= 4; i++) {
+            assertThat(drainOne(buffer)).isEqualTo(i);
+        }
+        assertThat(buffer.dropped()).isZero();
+    }
+
+    @Test
+    void concurrentProducersLoseNothingWhenBlocking() throws Exception {
+        AccessLogBuffer buffer = new AccessLogBuffer(16, AccessLogBuffer.OverflowPolicy.BLOCK);
+        int producers = 4;
+        int perProducer = 10_000;
+        CompletableFuture<?>[] running = new CompletableFuture<?>[producers];
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            running[p] = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.offer(producer * perProducer + i, "GET", "/", 200, 0, 0, producer);
+                }
+            });
+        }
+        long[] lastSeen = {-1, -1, -1, -1};
+        int consumed = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (consumed < producers * perProducer && System.nanoTime() < deadline) {
+            AccessLogBuffer.Slot slot = buffer.poll();
+            if (slot == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            // each producer's events keep their order
+            assertThat(slot.timestamp).isGreaterThan(lastSeen[slot.userId]);
+            lastSeen[slot.userId] = slot.timestamp;
+            buffer.release(slot);
+            consumed++;
+        }
+        CompletableFuture.allOf(running).get(5, TimeUnit.SECONDS);
+        assertThat(consumed).isEqualTo(producers * perProducer);
+    }
+
+    private static int drainOne(AccessLogBuffer buffer) {
+        Integer value = drainOneOrNull(buffer);
+        assertThat(value).isNotNull();
+        return value;
+    }
+
+    private static Integer drainOneOrNull(AccessLogBuffer buffer) {
+        AccessLogBuffer.Slot slot = buffer.poll();
+        if (slot == null) {
+            return null;
+        }
+        int value = (int) slot.timestamp;
+        buffer.release(slot);
+        return value;
+    }
+}
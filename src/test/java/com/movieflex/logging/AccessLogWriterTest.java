@@ -0,0 +1,83 @@
+package com.movieflex.logging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogWriterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesOneJsonObjectPerEvent() throws Exception {
+        List<JsonNode> lines = write(writer -> {
+            writer.buffer().offer(1700000000123L, "GET", "/movies/7", 200, 1534, 812, 42);
+            writer.buffer().offer(1700000000456L, "POST", "/auth/login", 401, 0, 0, -1);
+        });
+
+        assertThat(lines).hasSize(2);
+        JsonNode first = lines.get(0);
+        assertThat(first.get("ts").asLong()).isEqualTo(1700000000123L);
+        assertThat(first.get("method").asText()).isEqualTo("GET");
+        assertThat(first.get("path").asText()).isEqualTo("/movies/7");
+        assertThat(first.get("status").asInt()).isEqualTo(200);
+        assertThat(first.get("latencyMicros").asLong()).isEqualTo(1534);
+        assertThat(first.get("bytes").asLong()).isEqualTo(812);
+        assertThat(first.get("userId").asInt()).isEqualTo(42);
+        assertThat(lines.get(1).get("userId").isNull()).isTrue();
+        assertThat(lines.get(1).get("latencyMicros").asLong()).isZero();
+    }
+
+    @Test
+    void escapesPathsIntoValidUtf8Json() throws Exception {
+        String path = "/movies/cast/\"Quoted\" back\\slash tab\tnew\nline \u0001 café € 🎬";
+        List<JsonNode> lines = write(writer -> writer.buffer().offer(1, "GET", path, 200, 0, 0, -1));
+
+        assertThat(lines.get(0).get("path").asText()).isEqualTo(path);
+    }
+
+    @Test
+    void replacesLoneSurrogatesAndCutsLongPaths() throws Exception {
+        String longPath = "/" + "a".repeat(5000);
+        List<JsonNode> lines = write(writer -> {
+            writer.buffer().offer(1, "GET", "/x\uD83Cy", 200, 0, 0, -1);
+            writer.buffer().offer(2, "GET", longPath, 200, 0, 0, -1);
+        });
+
+        assertThat(lines.get(0).get("path").asText()).isEqualTo("/x?y");
+        assertThat(lines.get(1).get("path").asText()).isEqualTo(longPath.substring(0, 2048));
+    }
+
+    private List<JsonNode> write(Events events) throws Exception {
+        Path file = dir.resolve("access.log");
+        AccessLogWriter writer = new AccessLogWriter(file.toString(), 64, AccessLogBuffer.OverflowPolicy.BLOCK,
+                Duration.ofMillis(1));
+        try {
+            events.offer(writer);
+        } finally {
+            // drains what is left and closes the file
+            writer.shutdown();
+        }
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private interface Events {
+        void offer(AccessLogWriter writer);
+    }
+}
@@ -0,0 +1,185 @@
+package com.movieflex.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movieflex.datasource.ReadRouting;
+import com.movieflex.dto.MovieDto;
+import com.movieflex.entities.CacheChangeType;
+import com.movieflex.repositories.MovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogSnapshotServiceTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // what the replicas and the primary return, the primary may be ahead
+    private final Map<Integer, MovieDto> replica = new TreeMap<>();
+    private final Map<Integer, MovieDto> primary = new TreeMap<>();
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void catalog() {
+        for (int id = 1; id <= 5; id++) {
+            put(movie(id, "Movie " + id, "b", "a"));
+        }
+    }
+
+    @Test
+    void fullBuildWritesTheCatalogInIdOrder() throws IOException {
+        CatalogSnapshotService service = service(dir.resolve("a"));
+        service.build();
+
+        assertThat(read(service)).extracting(MovieDto::getMovieId).containsExactly(1, 2, 3, 4, 5);
+        assertThat(read(service).get(0).getPosterUrl()).isEqualTo("http://test/file/poster-1.png");
+    }
+
+    @Test
+    void fullBuildTakesChangesDrainedIntoItFromThePrimary() throws IOException {
+        CatalogSnapshotService service = service(dir.resolve("a"));
+        // the replica hasn't seen these yet
+        primary.put(2, movie(2, "Movie 2 renamed", "a"));
+        primary.remove(3);
+        primary.put(7, movie(7, "Movie 7", "a"));
+        service.invalidate(CacheChangeType.MOVIE, Set.of("2", "3", "7"), false);
+
+        service.build();
+
+        List<MovieDto> movies = read(service);
+        assertThat(movies).extracting(MovieDto::getMovieId).containsExactly(1, 2, 4, 5, 7);
+        assertThat(movies.get(1).getTitle()).isEqualTo("Movie 2 renamed");
+    }
+
+    @Test
+    void mergeGivesTheSameFileAsAFullBuild() throws IOException {
+        CatalogSnapshotService incremental = service(dir.resolve("a"));
+        incremental.build();
+        String before = incremental.current().etag();
+
+        replica.remove(1);
+        primary.remove(1);
+        put(movie(3, "Movie 3 renamed", "c", "a"));
+        replica.remove(5);
+        primary.remove(5);
+        put(movie(9, "Movie 9", "a"));
+        put(movie(6, "Movie 6", "a"));
+        incremental.invalidate(CacheChangeType.MOVIE, Set.of("1", "3", "5", "6", "9"), false);
+        incremental.build();
+
+        CatalogSnapshotService full = service(dir.resolve("b"));
+        full.build();
+
+        assertThat(incremental.current().etag()).isNotEqualTo(before).isEqualTo(full.current().etag());
+        assertThat(Files.readAllBytes(incremental.current().file())).isEqualTo(Files.readAllBytes(full.current().file()));
+        assertThat(read(incremental)).extracting(MovieDto::getMovieId).containsExactly(2, 3, 4, 6, 9);
+    }
+
+    @Test
+    void unchangedCatalogKeepsItsVersion() {
+        CatalogSnapshotService service = service(dir.resolve("a"));
+        service.build();
+        CatalogSnapshotService.Snapshot first = service.current();
+
+        service.invalidate(CacheChangeType.MOVIE, Set.of("2"), false);
+        service.build();
+
+        assertThat(service.current()).isSameAs(first);
+    }
+
+    @Test
+    void castOrderDoesntChangeTheBytes() throws IOException {
+        CatalogSnapshotService one = service(dir.resolve("a"));
+        one.build();
+        // same people, read back in a different order as another node's set might iterate them
+        for (int id = 1; id <= 5; id++) {
+            put(movie(id, "Movie " + id, "a", "b"));
+        }
+        CatalogSnapshotService other = service(dir.resolve("b"));
+        other.build();
+
+        assertThat(other.current().etag()).isEqualTo(one.current().etag());
+        assertThat(read(one).get(0).getMovieCast()).containsExactly("a", "b");
+    }
+
+    private CatalogSnapshotService service(Path directory) {
+        MovieRepository movieRepository = mock(MovieRepository.class);
+        when(movieRepository.findIdsAfter(anyInt(), any(Pageable.class))).thenAnswer(invocation -> {
+            Integer after = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            return replica.keySet().stream().filter(id -> id > after).limit(pageable.getPageSize()).toList();
+        });
+        when(movieRepository.findAllProjectedByIds(anyCollection(), any())).thenAnswer(invocation -> {
+            Collection<Integer> ids = invocation.getArgument(0);
+            Map<Integer, MovieDto> source = ReadRouting.isPrimaryForced() ? primary : replica;
+            List<MovieDto> movies = new ArrayList<>();
+            // unordered, like an IN query
+            for (Integer id : ids.stream().sorted((a, b) -> b - a).toList()) {
+                MovieDto movie = source.get(id);
+                if (movie != null) {
+                    movies.add(copy(movie));
+                }
+            }
+            return movies;
+        });
+        CatalogSnapshotService service = new CatalogSnapshotService(movieRepository, objectMapper,
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "directory", directory);
+        ReflectionTestUtils.setField(service, "compressionLevel", 6);
+        ReflectionTestUtils.setField(service, "baseUrl", "http://test");
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return service;
+    }
+
+    private List<MovieDto> read(CatalogSnapshotService service) throws IOException {
+        List<MovieDto> movies = new ArrayList<>();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(service.current().file()))) {
+            for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                movies.add(objectMapper.readValue(line, MovieDto.class));
+            }
+        }
+        return movies;
+    }
+
+    private void put(MovieDto movie) {
+        replica.put(movie.getMovieId(), movie);
+        primary.put(movie.getMovieId(), movie);
+    }
+
+    private static MovieDto movie(int id, String title, String... cast) {
+        return new MovieDto(id, title, "Director", "Studio", new LinkedHashSet<>(List.of(cast)), 2000 + id,
+                "poster-" + id + ".png", null);
+    }
+
+    private static MovieDto copy(MovieDto movie) {
+        return new MovieDto(movie.getMovieId(), movie.getTitle(), movie.getDirector(), movie.getStudio(),
+                new LinkedHashSet<>(movie.getMovieCast()), movie.getReleaseYear(), movie.getPoster(), null);
+    }
+}
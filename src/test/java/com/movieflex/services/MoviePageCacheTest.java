@@ -0,0 +1,143 @@
+package com.movieflex.services;
+
+import com.movieflex.datasource.DataSourceRoutingProperties;
+import com.movieflex.dto.MovieField;
+import com.movieflex.dto.MoviePageResponse;
+import com.movieflex.entities.CacheChangeType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MoviePageCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void repeatedPagesAreServedFromTheCache() {
+        MoviePageCache cache = cache(null, true);
+
+        MoviePageResponse first = get(cache, "title", false);
+        MoviePageResponse second = get(cache, "title", false);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        // every part of the key counts
+        get(cache, "director", false);
+        cache.get(0, 10, "title", "asc", EnumSet.of(MovieField.TITLE), false, this::load);
+        assertThat(loads).hasValue(3);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void aBumpMakesEveryPageUnreachable() {
+        MoviePageCache cache = cache(null, true);
+        MoviePageResponse before = get(cache, "title", false);
+
+        cache.invalidate(CacheChangeType.MOVIE, Set.of("7"), false);
+
+        assertThat(get(cache, "title", false)).isNotSameAs(before);
+        assertThat(loads).hasValue(2);
+        assertThat(cache.stats().catalogVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void otherChangesLeaveThePagesAlone() {
+        MoviePageCache cache = cache(null, true);
+        get(cache, "title", false);
+
+        cache.invalidate(CacheChangeType.USER, Set.of("7"), false);
+        get(cache, "title", false);
+
+        assertThat(loads).hasValue(1);
+        cache.invalidateAll();
+        get(cache, "title", false);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void aLoadRacingABumpStoresUnderTheOldVersion() {
+        MoviePageCache cache = cache(null, true);
+
+        // the change commits while the page is being read
+        MoviePageResponse stale = cache.get(0, 10, "title", "asc", null, false, () -> {
+            MoviePageResponse page = load();
+            cache.invalidate(CacheChangeType.MOVIE, Set.of("7"), false);
+            return page;
+        });
+
+        assertThat(get(cache, "title", false)).isNotSameAs(stale);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void primaryReadsSkipTheLookupButStore() {
+        MoviePageCache cache = cache(null, true);
+        MoviePageResponse cached = get(cache, "title", false);
+
+        MoviePageResponse primary = get(cache, "title", true);
+
+        assertThat(primary).isNotSameAs(cached);
+        assertThat(get(cache, "title", false)).isSameAs(primary);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void nothingIsStoredForTheReplicaLagAfterABump() throws InterruptedException {
+        MoviePageCache cache = cache(Duration.ofMillis(300), true);
+        // a fresh node stores right away
+        get(cache, "title", false);
+        get(cache, "title", false);
+        assertThat(loads).hasValue(1);
+
+        cache.invalidate(CacheChangeType.MOVIE, Set.of("7"), false);
+        get(cache, "title", false);
+        get(cache, "title", false);
+        assertThat(loads).hasValue(3);
+        // the primary is never behind
+        MoviePageResponse primary = get(cache, "title", true);
+        assertThat(get(cache, "title", false)).isSameAs(primary);
+
+        Thread.sleep(400);
+        MoviePageResponse later = get(cache, "director", false);
+        assertThat(get(cache, "director", false)).isSameAs(later);
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        MoviePageCache cache = cache(null, false);
+
+        get(cache, "title", false);
+        get(cache, "title", false);
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.stats().pages()).isZero();
+    }
+
+    private MoviePageResponse get(MoviePageCache cache, String sortBy, boolean primary) {
+        return cache.get(0, 10, sortBy, "asc", null, primary, this::load);
+    }
+
+    private MoviePageResponse load() {
+        loads.incrementAndGet();
+        return new MoviePageResponse(List.of(), 0, 10, 0L, 0, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MoviePageCache cache(Duration maxReplicaLag, boolean enabled) {
+        ObjectProvider<DataSourceRoutingProperties> routing = mock(ObjectProvider.class);
+        if (maxReplicaLag != null) {
+            when(routing.getIfAvailable()).thenReturn(new DataSourceRoutingProperties(
+                    List.of(new DataSourceRoutingProperties.Replica("jdbc:h2:mem:replica", "sa", "")),
+                    maxReplicaLag, Duration.ofSeconds(5)));
+        }
+        return new MoviePageCache(routing, enabled, 20_000, Duration.ofMinutes(1));
+    }
+}
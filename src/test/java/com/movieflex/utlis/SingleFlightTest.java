@@ -0,0 +1,148 @@
+package com.movieflex.utlis;
+
+import com.movieflex.exceptions.LoadTimeoutException;
+import com.movieflex.exceptions.MovieNoteFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        Future<Integer> first = executor.submit(() -> flight.load("k", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return 42;
+        }));
+        loading.await();
+        Future<Integer> second = executor.submit(() -> flight.load("k", () -> {
+            loads.incrementAndGet();
+            return -1;
+        }));
+        waitUntilWaiting(second);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        assertThat(loads).hasValue(1);
+        assertThat(flight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void waitersSeeTheLoadersException() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> first = executor.submit(() -> flight.load("k", () -> {
+            loading.countDown();
+            await(release);
+            throw new MovieNoteFoundException("Movie not found with id : 7");
+        }));
+        loading.await();
+        Future<Integer> second = executor.submit(() -> flight.load("k", () -> 1));
+        waitUntilWaiting(second);
+        release.countDown();
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(MovieNoteFoundException.class);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOf(MovieNoteFoundException.class)
+                .hasMessage("Movie not found with id : 7");
+        // a failed load isn't remembered, the next caller tries again
+        assertThat(flight.load("k", () -> 3)).isEqualTo(3);
+    }
+
+    @Test
+    void waiterTimesOutWhileTheLoadKeepsRunning() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ofMillis(50));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> first = executor.submit(() -> flight.load("k", () -> {
+            loading.countDown();
+            await(release);
+            return 42;
+        }));
+        loading.await();
+
+        assertThatThrownBy(() -> flight.load("k", () -> -1)).isInstanceOf(LoadTimeoutException.class);
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+    }
+
+    @Test
+    void forgetLetsNewCallersStartAFreshLoad() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch oldLoading = new CountDownLatch(1);
+        CountDownLatch releaseOld = new CountDownLatch(1);
+        CountDownLatch newLoading = new CountDownLatch(1);
+        CountDownLatch releaseNew = new CountDownLatch(1);
+
+        Future<Integer> old = executor.submit(() -> flight.load("k", () -> {
+            oldLoading.countDown();
+            await(releaseOld);
+            return 1;
+        }));
+        oldLoading.await();
+        flight.forget(key -> key.equals("k"));
+
+        Future<Integer> fresh = executor.submit(() -> flight.load("k", () -> {
+            newLoading.countDown();
+            await(releaseNew);
+            return 2;
+        }));
+        assertThat(newLoading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // the old load finishing must not drop the entry of the newer one
+        releaseOld.countDown();
+        assertThat(old.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(flight.inFlightCount()).isEqualTo(1);
+        Future<Integer> joiner = executor.submit(() -> flight.load("k", () -> 3));
+        waitUntilWaiting(joiner);
+
+        releaseNew.countDown();
+        assertThat(fresh.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+        assertThat(joiner.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+        assertThat(flight.inFlightCount()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // the joiner has no hook of its own, so give it time to reach the in-flight future
+    private static void waitUntilWaiting(Future<?> future) throws InterruptedException {
+        Thread.sleep(100);
+        assertThat(future).isNotDone();
+    }
+}